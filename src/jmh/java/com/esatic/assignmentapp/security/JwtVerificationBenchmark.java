@@ -0,0 +1,77 @@
+package com.esatic.assignmentapp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût CPU de l'authentification d'une requête :
+ * <ul>
+ *     <li>{@code legacy} : clé et parser reconstruits, token parsé trois fois (ancien {@code JwtService})</li>
+ *     <li>{@code singleParse} : clé et parser partagés, un seul parsing</li>
+ *     <li>{@code cached} : token déjà vérifié, servi depuis le cache de {@link JwtVerifier}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "votre_cle_secrete_tres_longue_pour_la_securite_jwt_au_moins_256_bits";
+
+    private JwtVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        verifier = new JwtVerifier(SECRET, 10_000);
+        token = Jwts.builder()
+                .setClaims(Map.of(
+                        JwtPrincipal.CLAIM_USER_ID, "65a1f0c2e4b0a1b2c3d4e5f6",
+                        JwtPrincipal.CLAIM_ROLE, "TEACHER",
+                        JwtPrincipal.CLAIM_SUBJECTS, List.of("65a1f0c2e4b0a1b2c3d4e5f7", "65a1f0c2e4b0a1b2c3d4e5f8"),
+                        JwtPrincipal.CLAIM_VERSION, 0L))
+                .setSubject("prof.martin")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(verifier.getSigningKey(), SignatureAlgorithm.HS256)
+                .compact();
+        verifier.verify(token);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyClaims().getSubject();
+        boolean sameUser = username.equals(legacyClaims().getSubject());
+        return sameUser && !legacyClaims().getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public Claims singleParse() {
+        return verifier.parseClaims(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal cached() {
+        return verifier.verify(token);
+    }
+
+    private Claims legacyClaims() {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,44 @@
+package com.esatic.assignmentapp.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connexions par seconde et par cœur selon le coût BCrypt : un thread de mesure,
+ * chaque opération étant la vérification du mot de passe d'une connexion.
+ * <p>
+ * Le coût retenu par {@link TunableBCryptPasswordEncoder#calibrate(long, int, int)} se lit dans les journaux
+ * au démarrage ; à multiplier par {@code app.auth.hashing.threads} pour la capacité du nœud.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+public class PasswordHashingBenchmark {
+
+    @Param({"8", "10", "12", "14"})
+    private int strength;
+
+    private TunableBCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new TunableBCryptPasswordEncoder(strength);
+        hash = encoder.encode("password");
+    }
+
+    @Benchmark
+    public boolean login() {
+        return encoder.matches("password", hash);
+    }
+}
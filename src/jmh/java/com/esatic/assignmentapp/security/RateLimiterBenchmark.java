@@ -0,0 +1,57 @@
+package com.esatic.assignmentapp.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Surcoût de {@link LocalRateLimiter} sous contention (8 threads) :
+ * <ul>
+ *     <li>{@code sameClient} : tous les threads sur le même seau (pire cas pour le compareAndSet)</li>
+ *     <li>{@code distinctClients} : un seau par thread</li>
+ * </ul>
+ * Les limites sont assez hautes pour que chaque appel consomme un jeton.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    private LocalRateLimiter limiter;
+
+    @State(Scope.Thread)
+    public static class Client {
+        private static final AtomicInteger SEQUENCE = new AtomicInteger();
+        final String key = "u:" + SEQUENCE.incrementAndGet();
+    }
+
+    @Setup
+    public void setUp() {
+        Map<RateLimitGroup, RateLimits.Limit> limits = new EnumMap<>(RateLimitGroup.class);
+        for (RateLimitGroup group : RateLimitGroup.values()) {
+            limits.put(group, new RateLimits.Limit(Long.MAX_VALUE / 4_000_000_000L, 1_000_000_000d));
+        }
+        limiter = new LocalRateLimiter(new RateLimits(limits));
+    }
+
+    @Benchmark
+    public long sameClient() {
+        return limiter.tryAcquire("u:shared", RateLimitGroup.READS);
+    }
+
+    @Benchmark
+    public long distinctClients(Client client) {
+        return limiter.tryAcquire(client.key, RateLimitGroup.READS);
+    }
+}
@@ -0,0 +1,105 @@
+package com.esatic.assignmentapp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.UrlResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envoi d'un fichier vers un descripteur de sortie ({@code /dev/null}, sinon un fichier temporaire) :
+ * <ul>
+ *     <li>{@code urlResource} : ancien chemin, {@code UrlResource} lu par flux et recopié par tampon</li>
+ *     <li>{@code transferTo} : {@link FileChannel#transferTo} vers un canal fichier (sendfile/copy_file_range)</li>
+ *     <li>{@code transferToStream} : {@link FileChannel#transferTo} vers un flux, repli sans sendfile de {@link FileSender}</li>
+ *     <li>{@code rangeTransferTo} : 1 Mo au milieu du fichier, là où l'ancien chemin renvoyait tout</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FileServingBenchmark {
+
+    @Param({"1", "50"})
+    private int sizeMb;
+
+    private Path file;
+    private Path sinkPath;
+    private FileChannel sink;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("serve-bench", ".bin");
+        byte[] chunk = new byte[1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(chunk);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < sizeMb; i++) {
+                out.write(chunk);
+            }
+        }
+        Path devNull = Paths.get("/dev/null");
+        sinkPath = Files.exists(devNull) ? devNull : Files.createTempFile("serve-bench", ".out");
+        sink = FileChannel.open(sinkPath, StandardOpenOption.WRITE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        sink.close();
+        Files.deleteIfExists(file);
+        if (!sinkPath.toString().equals("/dev/null")) {
+            Files.deleteIfExists(sinkPath);
+        }
+    }
+
+    @Benchmark
+    public long urlResource() throws IOException {
+        try (InputStream in = new UrlResource(file.toUri()).getInputStream()) {
+            return in.transferTo(Channels.newOutputStream(sink));
+        }
+    }
+
+    @Benchmark
+    public long transferTo() throws IOException {
+        return transfer(0, Files.size(file), sink);
+    }
+
+    @Benchmark
+    public long transferToStream() throws IOException {
+        return transfer(0, Files.size(file), Channels.newChannel(Channels.newOutputStream(sink)));
+    }
+
+    @Benchmark
+    public long rangeTransferTo() throws IOException {
+        long length = Files.size(file);
+        long start = length / 2;
+        return transfer(start, Math.min(length, start + 1024 * 1024), sink);
+    }
+
+    private long transfer(long start, long end, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+            return position - start;
+        }
+    }
+}
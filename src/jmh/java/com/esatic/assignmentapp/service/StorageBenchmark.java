@@ -0,0 +1,119 @@
+package com.esatic.assignmentapp.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Débit des {@link StorageBackend} (opérations/s × {@code sizeMb} = Mo/s) :
+ * <ul>
+ *     <li>{@code write} : écriture en flux d'un nouvel objet</li>
+ *     <li>{@code read} : lecture complète d'un objet existant</li>
+ *     <li>{@code rangeRead} : 1 Mo au milieu de l'objet (reprise de téléchargement, lecture vidéo)</li>
+ * </ul>
+ * {@code gridfs} nécessite un MongoDB sur {@code -Dbench.mongo.uri} (par défaut {@code mongodb://127.0.0.1:27017}) ;
+ * la base {@code storage_bench} est supprimée à la fin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class StorageBenchmark {
+
+    private static final String DATABASE = "storage_bench";
+
+    @Param({"local", "gridfs"})
+    private String backend;
+
+    @Param({"1", "20"})
+    private int sizeMb;
+
+    private StorageBackend storage;
+    private MongoClient client;
+    private Path directory;
+    private byte[] content;
+    private String existingKey;
+
+    @Setup
+    public void setUp() throws IOException {
+        content = new byte[sizeMb * 1024 * 1024];
+        ThreadLocalRandom.current().nextBytes(content);
+        if ("gridfs".equals(backend)) {
+            client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://127.0.0.1:27017"));
+            storage = new GridFsStorageBackend(client.getDatabase(DATABASE), "uploads", 1024 * 1024);
+        } else {
+            directory = Files.createTempDirectory("storage-bench");
+            storage = new LocalStorageBackend(directory);
+        }
+        existingKey = UUID.randomUUID().toString();
+        storage.write(existingKey, new ByteArrayInputStream(content));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (client != null) {
+            client.getDatabase(DATABASE).drop();
+            client.close();
+        }
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    // Les objets écrits pendant une itération sont supprimés ensuite : taille du stockage stable
+    @TearDown(Level.Iteration)
+    public void clean() throws IOException {
+        storage.deleteByPrefix("w-");
+    }
+
+    @Benchmark
+    public String write() throws IOException {
+        String key = "w-" + UUID.randomUUID();
+        storage.write(key, new ByteArrayInputStream(content));
+        return key;
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        try (InputStream in = storage.read(existingKey)) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public long rangeRead() throws IOException {
+        long start = content.length / 2;
+        long end = Math.min(content.length, start + 1024 * 1024);
+        try (InputStream in = storage.read(existingKey, start, end)) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.esatic.assignmentapp.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit de 4 uploads simultanés de 50 Mo (opérations/s × 50 Mo = Mo/s) :
+ * <ul>
+ *     <li>{@code spooled} : ancien chemin multipart, corps écrit dans un fichier temporaire puis recopié</li>
+ *     <li>{@code streamed} : {@link UploadStreams#copy} vers le répertoire final, SHA-256 et comptage compris</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class UploadBenchmark {
+
+    private static final long UPLOAD_SIZE = 50L * 1024 * 1024;
+
+    private Path directory;
+    private byte[] chunk;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("upload-bench");
+        chunk = new byte[64 * 1024];
+        ThreadLocalRandom.current().nextBytes(chunk);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clean() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long spooled() throws IOException {
+        Path spool = Files.createTempFile(directory, "spool", ".tmp");
+        Files.copy(body(), spool, StandardCopyOption.REPLACE_EXISTING);
+        Path target = directory.resolve("spooled-" + System.nanoTime());
+        try (InputStream in = Files.newInputStream(spool)) {
+            Files.copy(in, target);
+        }
+        Files.delete(spool);
+        return Files.size(target);
+    }
+
+    @Benchmark
+    public long streamed() throws IOException {
+        Path part = directory.resolve("streamed-" + System.nanoTime() + ".part");
+        UploadStreams.Copied copied;
+        try (OutputStream out = Files.newOutputStream(part)) {
+            copied = UploadStreams.copy(body(), out, Long.MAX_VALUE);
+        }
+        Files.move(part, directory.resolve(part.getFileName().toString().replace(".part", "")), StandardCopyOption.ATOMIC_MOVE);
+        return copied.size();
+    }
+
+    // Corps de requête simulé : 50 Mo générés sans allocation
+    private InputStream body() {
+        return new InputStream() {
+            private long remaining = UPLOAD_SIZE;
+
+            @Override
+            public int read() {
+                if (remaining == 0) {
+                    return -1;
+                }
+                remaining--;
+                return chunk[(int) (remaining % chunk.length)] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (remaining == 0) {
+                    return -1;
+                }
+                int count = (int) Math.min(Math.min(length, chunk.length), remaining);
+                System.arraycopy(chunk, 0, buffer, offset, count);
+                remaining -= count;
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package com.esatic.assignmentapp.config;
+
+import graphql.ExecutionInput;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.persisted.ApolloPersistedQuerySupport;
+import graphql.execution.preparsed.persisted.PersistedQueryCache;
+import graphql.execution.preparsed.persisted.PersistedQueryCacheMiss;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import graphql.language.StringValue;
+import graphql.schema.Coercing;
+import graphql.schema.CoercingParseLiteralException;
+import graphql.schema.CoercingParseValueException;
+import graphql.schema.CoercingSerializeException;
+import graphql.schema.GraphQLScalarType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Configuration du point d'entrée GraphQL : limites de profondeur et de complexité,
+ * requêtes persistées (protocole Apollo APQ) et scalaire {@code DateTime}.
+ * <p>
+ * Chaque fichier {@code classpath:graphql/persisted/*.graphql} est enregistré sous l'empreinte
+ * SHA-256 de son contenu : le client n'envoie alors que {@code extensions.persistedQuery.sha256Hash}.
+ * Seules ces empreintes sont acceptées : une empreinte inconnue est refusée ({@code PersistedQueryNotFound})
+ * au lieu d'être enregistrée, le cache reste donc borné par la liste.
+ */
+@Configuration
+@Slf4j
+public class GraphQlConfig {
+
+    @Value("${app.graphql.max-depth:10}")
+    private int maxDepth;
+
+    @Value("${app.graphql.max-complexity:1000}")
+    private int maxComplexity;
+
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation() {
+        return new MaxQueryDepthInstrumentation(maxDepth);
+    }
+
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation() {
+        return new MaxQueryComplexityInstrumentation(maxComplexity);
+    }
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer persistedQueriesCustomizer() throws IOException {
+        Map<Object, String> knownQueries = loadPersistedQueries();
+        log.info("{} requête(s) GraphQL persistée(s) chargée(s)", knownQueries.size());
+        ApolloPersistedQuerySupport persistedQuerySupport =
+                new ApolloPersistedQuerySupport(new AllowlistPersistedQueryCache(knownQueries));
+        return builder -> builder.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(persistedQuerySupport));
+    }
+
+    @Bean
+    public RuntimeWiringConfigurer dateTimeScalarConfigurer() {
+        GraphQLScalarType dateTime = GraphQLScalarType.newScalar()
+                .name("DateTime")
+                .description("Date au format ISO-8601 (UTC)")
+                .coercing(new DateTimeCoercing())
+                .build();
+        return wiringBuilder -> wiringBuilder.scalar(dateTime);
+    }
+
+    private Map<Object, String> loadPersistedQueries() throws IOException {
+        Map<Object, String> queries = new HashMap<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath*:graphql/persisted/*.graphql");
+        for (Resource resource : resources) {
+            String query = resource.getContentAsString(StandardCharsets.UTF_8);
+            queries.put(sha256(query), query);
+        }
+        return queries;
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Cache des documents analysés, limité aux requêtes de la liste.
+     */
+    private static class AllowlistPersistedQueryCache implements PersistedQueryCache {
+
+        private final Map<Object, String> knownQueries;
+        private final Map<Object, PreparsedDocumentEntry> documents = new ConcurrentHashMap<>();
+
+        AllowlistPersistedQueryCache(Map<Object, String> knownQueries) {
+            this.knownQueries = Map.copyOf(knownQueries);
+        }
+
+        @Override
+        public PreparsedDocumentEntry getPersistedQueryDocument(Object persistedQueryId, ExecutionInput executionInput,
+                                                                PersistedQueryCacheMiss onCacheMiss)
+                throws PersistedQueryNotFound {
+            String query = knownQueries.get(persistedQueryId);
+            if (query == null) {
+                throw new PersistedQueryNotFound(persistedQueryId);
+            }
+            return documents.computeIfAbsent(persistedQueryId, id -> onCacheMiss.apply(query));
+        }
+    }
+
+    private static class DateTimeCoercing implements Coercing<Date, String> {
+
+        @Override
+        public String serialize(Object dataFetcherResult) {
+            if (dataFetcherResult instanceof Date date) {
+                return date.toInstant().toString();
+            }
+            throw new CoercingSerializeException("Date attendue, reçu: " + dataFetcherResult);
+        }
+
+        @Override
+        public Date parseValue(Object input) {
+            try {
+                return Date.from(Instant.parse(input.toString()));
+            } catch (DateTimeParseException e) {
+                throw new CoercingParseValueException("Date ISO-8601 invalide: " + input, e);
+            }
+        }
+
+        @Override
+        public Date parseLiteral(Object input) {
+            if (input instanceof StringValue stringValue) {
+                try {
+                    return Date.from(Instant.parse(stringValue.getValue()));
+                } catch (DateTimeParseException e) {
+                    throw new CoercingParseLiteralException("Date ISO-8601 invalide: " + stringValue.getValue(), e);
+                }
+            }
+            throw new CoercingParseLiteralException("Chaîne ISO-8601 attendue");
+        }
+    }
+}
@@ -47,6 +47,9 @@ public class MockarooDataGenerator implements CommandLineRunner {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
 
+    // Hachage partagé du mot de passe commun des comptes générés
+    private String seedPasswordHash;
+
     @Value("${app.mockaroo.api-key:6bddbd20}")
     private String mockarooApiKey;
 
@@ -211,7 +214,7 @@ public class MockarooDataGenerator implements CommandLineRunner {
                         .lastName((String) data.get("last_name"))
                         .username("admin" + (i + 2))
                         .email(data.get("email").toString())
-                        .password(passwordEncoder.encode("password"))
+                        .password(seedPassword())
                         .role("ADMIN")
                         .photoUrl(data.get("avatar").toString())
                         .enabled(true)
@@ -375,7 +378,7 @@ public class MockarooDataGenerator implements CommandLineRunner {
                         .lastName((String) data.get("last_name"))
                         .username("student" + (j + 1))
                         .email(data.get("email").toString())
-                        .password(passwordEncoder.encode("password"))
+                        .password(seedPassword())
                         .role("STUDENT")
                         .photoUrl(data.get("avatar").toString())
                         .enabled(true)
@@ -489,4 +492,12 @@ public class MockarooDataGenerator implements CommandLineRunner {
         File file = new File(cacheFile);
         objectMapper.writeValue(file, data);
     }
-}
\ No newline at end of file
+
+    // Tous les comptes générés ont le même mot de passe : un seul hachage au lieu d'un par utilisateur
+    private String seedPassword() {
+        if (seedPasswordHash == null) {
+            seedPasswordHash = passwordEncoder.encode("password");
+        }
+        return seedPasswordHash;
+    }
+}
@@ -0,0 +1,21 @@
+package com.esatic.assignmentapp.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+/**
+ * Transactions MongoDB : nécessitent un replica set, donc désactivées par défaut
+ * pour l'instance locale autonome.
+ */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.mongo.transactions.enabled", havingValue = "true")
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+}
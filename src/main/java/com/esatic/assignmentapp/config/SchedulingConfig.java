@@ -0,0 +1,12 @@
+package com.esatic.assignmentapp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les tâches planifiées (archivage, nettoyages périodiques).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
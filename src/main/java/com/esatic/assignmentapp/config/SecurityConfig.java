@@ -1,6 +1,12 @@
 package com.esatic.assignmentapp.config;
 
 import com.esatic.assignmentapp.security.JwtAuthenticationFilter;
+import com.esatic.assignmentapp.security.PasswordHashingPool;
+import com.esatic.assignmentapp.security.PooledPasswordEncoder;
+import com.esatic.assignmentapp.security.RateLimitFilter;
+import com.esatic.assignmentapp.security.TunableBCryptPasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -14,8 +20,9 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -24,27 +31,41 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
-import jakarta.annotation.PostConstruct;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@Slf4j
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final PasswordHashingPool passwordHashingPool;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, @Lazy UserDetailsService userDetailsService) {
+    // 0 = coût calibré au démarrage sur app.auth.bcrypt.target-ms
+    @Value("${app.auth.bcrypt.strength:0}")
+    private int bcryptStrength;
+
+    @Value("${app.auth.bcrypt.target-ms:250}")
+    private long bcryptTargetMs;
+
+    @Value("${app.auth.bcrypt.min-strength:10}")
+    private int bcryptMinStrength;
+
+    @Value("${app.auth.bcrypt.max-strength:14}")
+    private int bcryptMaxStrength;
+
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, RateLimitFilter rateLimitFilter, @Lazy UserDetailsService userDetailsService,
+                          @Lazy UserDetailsPasswordService userDetailsPasswordService,
+                          PasswordHashingPool passwordHashingPool) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.rateLimitFilter = rateLimitFilter;
         this.userDetailsService = userDetailsService;
-    }
-
-    // Injecter UserDetailsService dans le filtre après l'initialisation
-    @PostConstruct
-    public void init() {
-        if (jwtAuthFilter instanceof JwtAuthenticationFilter) {
-            ((JwtAuthenticationFilter) jwtAuthFilter).setUserDetailsService(userDetailsService);
-        }
+        this.userDetailsPasswordService = userDetailsPasswordService;
+        this.passwordHashingPool = passwordHashingPool;
     }
 
     @Bean
@@ -54,6 +75,9 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // Actuator : santé publique, métriques réservées aux administrateurs
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Permettre l'accès à toutes les APIs sans authentification
                         .requestMatchers("/api/**").permitAll()
                         .requestMatchers("/uploads/**").permitAll()
@@ -62,7 +86,9 @@ public class SecurityConfig {
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Après le JWT : limite par utilisateur si authentifié, sinon par IP
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -84,12 +110,25 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // Hachage réencodé au coût courant lors d'une connexion réussie
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService);
         return authProvider;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int strength = bcryptStrength > 0
+                ? bcryptStrength
+                : TunableBCryptPasswordEncoder.calibrate(bcryptTargetMs, bcryptMinStrength, bcryptMaxStrength);
+        log.info("Coût BCrypt : {}", strength);
+
+        TunableBCryptPasswordEncoder bcrypt = new TunableBCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // Hachages existants sans préfixe {bcrypt} : vérifiés tels quels puis réencodés à la connexion
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        // BCrypt hors des threads Tomcat, avec refus immédiat quand la file est pleine
+        return new PooledPasswordEncoder(delegating, passwordHashingPool);
     }
 
     @Bean
@@ -1,6 +1,7 @@
 package com.esatic.assignmentapp.controller;
 
 import com.esatic.assignmentapp.dto.*;
+import com.esatic.assignmentapp.service.AssignmentArchiveService;
 import com.esatic.assignmentapp.service.AssignmentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,17 +18,21 @@ import org.springframework.web.bind.annotation.*;
 public class AssignmentController {
 
     private final AssignmentService assignmentService;
+    private final AssignmentArchiveService assignmentArchiveService;
 
     @GetMapping
     public ResponseEntity<PaginatedResponse<AssignmentResponseDTO>> getAllAssignments(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(assignmentService.getAllAssignments(page, limit));
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(assignmentService.getAllAssignments(page, limit, includeArchived));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<AssignmentResponseDTO> getAssignmentById(@PathVariable String id) {
-        return ResponseEntity.ok(assignmentService.getAssignmentById(id));
+    public ResponseEntity<AssignmentResponseDTO> getAssignmentById(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(assignmentService.getAssignmentById(id, includeArchived));
     }
 
     @PostMapping
@@ -56,47 +61,53 @@ public class AssignmentController {
     @GetMapping("/submitted")
     public ResponseEntity<PaginatedResponse<AssignmentResponseDTO>> getSubmittedAssignments(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(assignmentService.getSubmittedAssignments(page, limit));
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(assignmentService.getSubmittedAssignments(page, limit, includeArchived));
     }
 
     @GetMapping("/pending")
     public ResponseEntity<PaginatedResponse<AssignmentResponseDTO>> getPendingAssignments(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(assignmentService.getPendingAssignments(page, limit));
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(assignmentService.getPendingAssignments(page, limit, includeArchived));
     }
 
     @GetMapping("/subject/{subjectId}")
     public ResponseEntity<PaginatedResponse<AssignmentResponseDTO>> getAssignmentsBySubject(
             @PathVariable String subjectId,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(assignmentService.getAssignmentsBySubject(subjectId, page, limit));
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(assignmentService.getAssignmentsBySubject(subjectId, page, limit, includeArchived));
     }
 
     @GetMapping("/student/{studentId}")
     public ResponseEntity<PaginatedResponse<AssignmentResponseDTO>> getAssignmentsByStudent(
             @PathVariable String studentId,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(assignmentService.getAssignmentsByStudent(studentId, page, limit));
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(assignmentService.getAssignmentsByStudent(studentId, page, limit, includeArchived));
     }
 
     @GetMapping("/teacher/{teacherId}")
     public ResponseEntity<PaginatedResponse<AssignmentResponseDTO>> getAssignmentsByTeacher(
             @PathVariable String teacherId,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(assignmentService.getAssignmentsByTeacher(teacherId, page, limit));
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(assignmentService.getAssignmentsByTeacher(teacherId, page, limit, includeArchived));
     }
 
     @GetMapping("/class/{classId}")
     public ResponseEntity<PaginatedResponse<AssignmentResponseDTO>> getAssignmentsByClass(
             @PathVariable String classId,
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "10") int limit) {
-        return ResponseEntity.ok(assignmentService.getAssignmentsByClass(classId, page, limit));
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return ResponseEntity.ok(assignmentService.getAssignmentsByClass(classId, page, limit, includeArchived));
     }
 
     @PostMapping("/{id}/submit")
@@ -107,6 +118,12 @@ public class AssignmentController {
         return ResponseEntity.ok(assignmentService.submitAssignment(id, submitDTO));
     }
 
+    @PostMapping("/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ArchiveReportDTO> archiveClosedYears() {
+        return ResponseEntity.ok(assignmentArchiveService.archiveClosedYears());
+    }
+
     @PostMapping("/{id}/grade")
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
     public ResponseEntity<AssignmentResponseDTO> gradeAssignment(
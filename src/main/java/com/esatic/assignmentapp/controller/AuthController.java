@@ -5,6 +5,8 @@ import com.esatic.assignmentapp.dto.AuthenticationResponse;
 import com.esatic.assignmentapp.dto.ErrorResponse;
 import com.esatic.assignmentapp.dto.RegisterRequest;
 import com.esatic.assignmentapp.model.User;
+import com.esatic.assignmentapp.security.JwtPrincipal;
+import com.esatic.assignmentapp.security.TokenRevocationService;
 import com.esatic.assignmentapp.service.AuthenticationService;
 import com.esatic.assignmentapp.service.UserService;
 import jakarta.validation.Valid;
@@ -12,7 +14,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -25,6 +27,7 @@ public class AuthController {
 
     private final AuthenticationService authenticationService;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
 
     @PostMapping("/register")
     public ResponseEntity<AuthenticationResponse> register(
@@ -40,19 +43,24 @@ public class AuthController {
         return ResponseEntity.ok(authenticationService.authenticate(request));
     }
 
+    @PostMapping("/logout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> logout(@AuthenticationPrincipal JwtPrincipal principal) {
+        tokenRevocationService.revoke(principal);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/profile")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> updateProfile(
+            @AuthenticationPrincipal JwtPrincipal principal,
             @RequestBody Map<String, Object> payload
     ) {
         try {
-            String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-            User updatedUser = userService.updateProfile(userId, payload);
+            String userId = principal.getId();
+            User updatedUser = userService.updateProfile(userId, principal.getRole(), payload);
 
-            // Construire une réponse sans le mot de passe
-            updatedUser.setPassword(null);
-
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(userService.toResponseDTO(updatedUser));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ErrorResponse("Erreur lors de la mise à jour du profil", e.getMessage()));
@@ -61,21 +69,14 @@ public class AuthController {
 
     @PutMapping("/change-password")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<?> changePassword(
+    public ResponseEntity<AuthenticationResponse> changePassword(
+            @AuthenticationPrincipal JwtPrincipal principal,
             @RequestBody Map<String, String> payload
     ) {
-        try {
-            String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-            String currentPassword = payload.get("currentPassword");
-            String newPassword = payload.get("newPassword");
-
-            userService.changePassword(userId, currentPassword, newPassword);
-
-            return ResponseEntity.ok().body(Map.of("message", "Mot de passe mis à jour avec succès"));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new ErrorResponse("Erreur lors du changement de mot de passe", e.getMessage()));
-        }
+        // Mot de passe actuel incorrect (401), file de hachage pleine (503)... : réponses du GlobalExceptionHandler.
+        // Les tokens existants étant invalidés, le nouveau token est renvoyé comme à la connexion
+        return ResponseEntity.ok(authenticationService.changePassword(
+                principal.getId(), payload.get("currentPassword"), payload.get("newPassword")));
     }
 
     // Endpoint de test pour vérifier CORS
@@ -1,15 +1,24 @@
 package com.esatic.assignmentapp.controller;
 
+import com.esatic.assignmentapp.dto.BulkEnrollmentRequest;
+import com.esatic.assignmentapp.dto.BulkOperationReportDTO;
 import com.esatic.assignmentapp.dto.ClassDTO;
+import com.esatic.assignmentapp.dto.ClassMembershipDTO;
 import com.esatic.assignmentapp.dto.ClassResponseDTO;
+import com.esatic.assignmentapp.dto.PaginatedResponse;
+import com.esatic.assignmentapp.dto.PromotionRequest;
+import com.esatic.assignmentapp.dto.StudentInfoDTO;
 import com.esatic.assignmentapp.service.ClassService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -20,8 +29,18 @@ public class ClassController {
     private final ClassService classService;
 
     @GetMapping
-    public ResponseEntity<List<ClassResponseDTO>> getAllClasses() {
-        return ResponseEntity.ok(classService.getAllClasses());
+    public ResponseEntity<PaginatedResponse<ClassResponseDTO>> getAllClasses(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(classService.getAllClasses(page, limit, after));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportClasses(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        classService.exportClasses(response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -46,13 +65,22 @@ public class ClassController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteClass(@PathVariable String id) {
-        classService.deleteClass(id);
-        return ResponseEntity.noContent().build();
+        boolean background = classService.deleteClass(id);
+        return background ? ResponseEntity.accepted().build() : ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/students")
+    public ResponseEntity<PaginatedResponse<StudentInfoDTO>> getStudents(
+            @PathVariable String id,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String q) {
+        return ResponseEntity.ok(classService.getStudents(id, after, limit, q));
     }
 
     @PostMapping("/{id}/students/{studentId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ClassResponseDTO> addStudentToClass(
+    public ResponseEntity<ClassMembershipDTO> addStudentToClass(
             @PathVariable String id,
             @PathVariable String studentId) {
         return ResponseEntity.ok(classService.addStudentToClass(id, studentId));
@@ -60,9 +88,23 @@ public class ClassController {
 
     @DeleteMapping("/{id}/students/{studentId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ClassResponseDTO> removeStudentFromClass(
+    public ResponseEntity<ClassMembershipDTO> removeStudentFromClass(
             @PathVariable String id,
             @PathVariable String studentId) {
         return ResponseEntity.ok(classService.removeStudentFromClass(id, studentId));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/{id}/students:bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BulkOperationReportDTO>> bulkEnroll(
+            @PathVariable String id,
+            @RequestBody BulkEnrollmentRequest request) {
+        return ResponseEntity.ok(classService.bulkEnroll(id, request));
+    }
+
+    @PostMapping("/promotion")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BulkOperationReportDTO>> promote(@Valid @RequestBody PromotionRequest request) {
+        return ResponseEntity.ok(classService.promote(request));
+    }
+}
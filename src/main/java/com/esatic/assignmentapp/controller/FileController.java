@@ -1,10 +1,16 @@
 package com.esatic.assignmentapp.controller;
 
+import com.esatic.assignmentapp.dto.DedupReportDTO;
+import com.esatic.assignmentapp.dto.ShardingReportDTO;
+import com.esatic.assignmentapp.dto.StoredFileDTO;
+import com.esatic.assignmentapp.exception.ResourceNotFoundException;
+import com.esatic.assignmentapp.repository.AssignmentRepository;
+import com.esatic.assignmentapp.service.FileSender;
 import com.esatic.assignmentapp.service.FileService;
+import com.esatic.assignmentapp.service.StorageLayoutMigration;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -20,6 +26,9 @@ import java.util.Map;
 public class FileController {
 
     private final FileService fileService;
+    private final FileSender fileSender;
+    private final StorageLayoutMigration storageLayoutMigration;
+    private final AssignmentRepository assignmentRepository;
 
     @PostMapping
     @PreAuthorize("isAuthenticated()")
@@ -41,23 +50,33 @@ public class FileController {
         }
     }
 
+    /**
+     * Upload en flux du corps brut de la requête (pas de multipart) : {@code Content-Type} du fichier,
+     * nom d'origine en paramètre.
+     */
+    @PutMapping("/stream")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StoredFileDTO> streamFile(
+            @RequestParam("type") String type,
+            @RequestParam("name") String name,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(fileService.storeStream(
+                request.getInputStream(), name, request.getContentType(), request.getContentLengthLong(), type));
+    }
+
+    /**
+     * Téléchargement ou aperçu ({@code ?download=true} pour forcer l'enregistrement, {@code ?size=} pour une miniature) :
+     * plages HTTP, ETag et envoi sans copie par {@link FileSender}.
+     */
     @GetMapping("/{type}/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(
+    public void serveFile(
             @PathVariable String type,
-            @PathVariable String filename) {
-
-        try {
-            Resource file = fileService.loadFileAsResource(filename, type);
-
-            String contentType = "application/octet-stream";
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFilename() + "\"")
-                    .body(file);
-        } catch (IOException e) {
-            throw new RuntimeException("Fichier non trouvé: " + e.getMessage());
-        }
+            @PathVariable String filename,
+            @RequestParam(value = "download", defaultValue = "false") boolean download,
+            @RequestParam(value = "size", required = false) Integer size,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        fileSender.send(fileService.resolve(filename, type, size), download, request, response);
     }
 
     @PostMapping("/assignments/{assignmentId}")
@@ -66,9 +85,10 @@ public class FileController {
             @PathVariable String assignmentId,
             @RequestParam("file") MultipartFile file) {
 
+        requireAssignment(assignmentId);
         try {
             String fileUrl = fileService.storeFile(file, "assignment");
-            fileService.addFileToAssignment(assignmentId, fileUrl);
+            attach(assignmentId, fileUrl);
 
             Map<String, String> response = new HashMap<>();
             response.put("fileUrl", fileUrl);
@@ -81,6 +101,54 @@ public class FileController {
         }
     }
 
+    @PutMapping("/assignments/{assignmentId}/stream")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StoredFileDTO> streamFileToAssignment(
+            @PathVariable String assignmentId,
+            @RequestParam("name") String name,
+            HttpServletRequest request) throws IOException {
+        requireAssignment(assignmentId);
+        StoredFileDTO stored = fileService.storeStream(
+                request.getInputStream(), name, request.getContentType(), request.getContentLengthLong(), "assignment");
+        attach(assignmentId, stored.getFileUrl());
+        return ResponseEntity.ok(stored);
+    }
+
+    // Vérifié avant de lire le corps : pas de fichier stocké pour un devoir inexistant
+    private void requireAssignment(String assignmentId) {
+        if (!assignmentRepository.existsById(assignmentId)) {
+            throw new ResourceNotFoundException("Assignment", "id", assignmentId);
+        }
+    }
+
+    // Devoir supprimé entre la vérification et l'ajout : le fichier stocké est libéré
+    private void attach(String assignmentId, String fileUrl) throws IOException {
+        try {
+            fileService.addFileToAssignment(assignmentId, fileUrl);
+        } catch (ResourceNotFoundException e) {
+            fileService.deleteFile(fileUrl);
+            throw e;
+        }
+    }
+
+    /**
+     * Déduplique les fichiers déjà présents dans {@code uploads/} ; les URL existantes restent valides.
+     */
+    @PostMapping("/migrations/dedup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DedupReportDTO> deduplicateLegacyFiles() throws IOException {
+        return ResponseEntity.ok(fileService.migrateLegacyFiles());
+    }
+
+    /**
+     * Avancement de la répartition des répertoires à plat, effectuée en arrière-plan par lots.
+     */
+    @GetMapping("/migrations/sharding")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ShardingReportDTO> shardingProgress() {
+        return ResponseEntity.ok(storageLayoutMigration.report());
+    }
+
     @DeleteMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Map<String, String>> deleteFile(@RequestParam("url") String fileUrl) {
@@ -0,0 +1,239 @@
+package com.esatic.assignmentapp.controller;
+
+import com.esatic.assignmentapp.dto.ConnectionDTO;
+import com.esatic.assignmentapp.model.Assignment;
+import com.esatic.assignmentapp.model.Class;
+import com.esatic.assignmentapp.model.Subject;
+import com.esatic.assignmentapp.model.Teacher;
+import com.esatic.assignmentapp.model.User;
+import com.esatic.assignmentapp.repository.MongoIds;
+import com.esatic.assignmentapp.repository.UserRepository;
+import com.esatic.assignmentapp.service.Cursors;
+import com.esatic.assignmentapp.service.ReferenceLoader;
+import graphql.schema.DataFetchingEnvironment;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.dataloader.DataLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Point d'entrée GraphQL ({@code /graphql}).
+ * <p>
+ * Les relations sont résolues par des {@link BatchMapping} : une requête {@code $in} par relation
+ * et par niveau, quel que soit le nombre de lignes. Les listes sont paginées par curseur (clé {@code _id}).
+ * Les étudiants d'une classe, paginés par classe, passent par un {@link DataLoader} : les arguments
+ * {@code first}/{@code after} restent propres à chaque champ, les effectifs sont chargés ensemble.
+ */
+@Controller
+@RequiredArgsConstructor
+public class GraphQlController {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final String CLASS_STUDENTS = "classStudents";
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final ReferenceLoader referenceLoader;
+    private final BatchLoaderRegistry batchLoaderRegistry;
+
+    @Value("${app.graphql.max-page-size:100}")
+    private int maxPageSize;
+
+    @PostConstruct
+    void registerLoaders() {
+        batchLoaderRegistry.<String, List<User>>forName(CLASS_STUDENTS)
+                .registerMappedBatchLoader((classIds, environment) ->
+                        Mono.fromCallable(() -> referenceLoader.studentsByClass(classIds)));
+    }
+
+    // Requêtes racines
+    @QueryMapping
+    public Assignment assignment(@Argument String id) {
+        return mongoTemplate.findById(id, Assignment.class);
+    }
+
+    @QueryMapping
+    public ConnectionDTO<Assignment> assignments(@Argument Integer first, @Argument String after, @Argument Boolean rendu) {
+        Criteria criteria = rendu != null ? Criteria.where("rendu").is(rendu) : null;
+        return connection(Assignment.class, criteria, first, after, Assignment::getId);
+    }
+
+    @QueryMapping(name = "class")
+    public Class classById(@Argument String id) {
+        return mongoTemplate.findById(id, Class.class);
+    }
+
+    @QueryMapping
+    public ConnectionDTO<Class> classes(@Argument Integer first, @Argument String after) {
+        return connection(Class.class, null, first, after, Class::getId);
+    }
+
+    @QueryMapping
+    public Subject subject(@Argument String id) {
+        return referenceLoader.subjects(List.of(id)).get(id);
+    }
+
+    @QueryMapping
+    public ConnectionDTO<Subject> subjects(@Argument Integer first, @Argument String after) {
+        return connection(Subject.class, null, first, after, Subject::getId, ReferenceLoader.SUBJECT_FIELDS);
+    }
+
+    @QueryMapping
+    public Teacher teacher(@Argument String id) {
+        return mongoTemplate.findById(id, Teacher.class);
+    }
+
+    @QueryMapping
+    public ConnectionDTO<Teacher> teachers(@Argument Integer first, @Argument String after) {
+        return connection(Teacher.class, null, first, after, Teacher::getId);
+    }
+
+    @QueryMapping
+    public User user(@Argument String id) {
+        return referenceLoader.users(List.of(id)).get(id);
+    }
+
+    // Relations résolues par lots : listes dans l'ordre des sources, sans hacher les entités
+    // (leur hashCode résoudrait les DBRef paresseuses une par une)
+    @BatchMapping(typeName = "Assignment")
+    public List<User> auteur(List<Assignment> assignments) {
+        return join(assignments, Assignment::getAuteur, referenceLoader::users);
+    }
+
+    @BatchMapping(typeName = "Assignment")
+    public List<Subject> matiere(List<Assignment> assignments) {
+        return join(assignments, Assignment::getMatiere, referenceLoader::subjects);
+    }
+
+    @BatchMapping(typeName = "Assignment", field = "classe")
+    public List<Class> classe(List<Assignment> assignments) {
+        return join(assignments, Assignment::getClassId, referenceLoader::classes);
+    }
+
+    @BatchMapping(typeName = "Subject")
+    public List<Teacher> teacher(List<Subject> subjects) {
+        // Les matières sont chargées sans leur DBRef : relire uniquement l'identifiant de l'enseignant
+        List<Object> subjectIds = subjects.stream().map(Subject::getId).map(MongoIds::toObjectId).toList();
+        Query query = new Query(Criteria.where("_id").in(subjectIds));
+        query.fields().include("teacher");
+        Map<String, String> teacherIds = new HashMap<>();
+        for (Document document : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Subject.class))) {
+            String teacherId = MongoIds.rawRefId(document.get("teacher"));
+            if (teacherId != null) {
+                teacherIds.put(document.get("_id").toString(), teacherId);
+            }
+        }
+
+        Map<String, Teacher> teachers = referenceLoader.teachers(new HashSet<>(teacherIds.values()));
+        List<Teacher> result = new ArrayList<>(subjects.size());
+        subjects.forEach(subject -> result.add(teachers.get(teacherIds.get(subject.getId()))));
+        return result;
+    }
+
+    @BatchMapping(typeName = "Teacher")
+    public List<List<Subject>> subjects(List<Teacher> teachers) {
+        Set<String> ids = teachers.stream()
+                .filter(teacher -> teacher.getSubjects() != null)
+                .flatMap(teacher -> teacher.getSubjects().stream())
+                .collect(Collectors.toSet());
+        Map<String, Subject> subjects = referenceLoader.subjects(ids);
+
+        return teachers.stream()
+                .map(teacher -> teacher.getSubjects() == null ? List.<Subject>of() :
+                        teacher.getSubjects().stream().map(subjects::get).filter(Objects::nonNull).toList())
+                .toList();
+    }
+
+    @BatchMapping(typeName = "Class")
+    public List<Integer> studentCount(List<Class> classes) {
+        Map<String, Long> counts = userRepository.countStudentsByClass(classes.stream().map(Class::getId).toList());
+        return classes.stream()
+                .map(classEntity -> counts.getOrDefault(classEntity.getId(), 0L).intValue())
+                .toList();
+    }
+
+    @SchemaMapping(typeName = "Class")
+    public CompletableFuture<ConnectionDTO<User>> students(Class classEntity, @Argument Integer first,
+                                                         @Argument String after, DataFetchingEnvironment environment) {
+        DataLoader<String, List<User>> rosters = environment.getDataLoader(CLASS_STUDENTS);
+        return rosters.load(classEntity.getId()).thenApply(students -> {
+            String afterId = after != null && !after.isBlank() ? Cursors.decode(after) : null;
+            int size = pageSize(first);
+            // Identifiants ObjectId de même longueur : l'ordre des chaînes est celui de _id
+            List<User> rows = students.stream()
+                    .filter(student -> afterId == null || student.getId().compareTo(afterId) > 0)
+                    .sorted(Comparator.comparing(User::getId))
+                    .limit(size + 1L)
+                    .toList();
+            return page(rows, size, User::getId);
+        });
+    }
+
+    // Utilitaires
+    private <S, T> List<T> join(List<S> sources, Function<S, Object> reference,
+                                Function<Set<String>, Map<String, T>> loader) {
+        List<String> ids = sources.stream()
+                .map(source -> MongoIds.refId(reference.apply(source)))
+                .toList();
+        Map<String, T> targets = loader.apply(ids.stream().filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        List<T> result = new ArrayList<>(ids.size());
+        ids.forEach(id -> result.add(id == null ? null : targets.get(id)));
+        return result;
+    }
+
+    private <T> ConnectionDTO<T> connection(java.lang.Class<T> type, Criteria criteria, Integer first, String after,
+                                            Function<T, String> idGetter, String... fields) {
+        int size = pageSize(first);
+
+        Query query = new Query();
+        if (criteria != null) {
+            query.addCriteria(criteria);
+        }
+        if (after != null && !after.isBlank()) {
+            query.addCriteria(Criteria.where("_id").gt(MongoIds.toObjectId(Cursors.decode(after))));
+        }
+        if (fields.length > 0) {
+            query.fields().include(fields);
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(size + 1);
+
+        return page(mongoTemplate.find(query, type), size, idGetter);
+    }
+
+    private int pageSize(Integer first) {
+        return Math.min(first != null && first > 0 ? first : DEFAULT_PAGE_SIZE, maxPageSize);
+    }
+
+    // rows : au plus size + 1 lignes triées par _id, la dernière ne servant qu'à détecter la page suivante
+    private <T> ConnectionDTO<T> page(List<T> rows, int size, Function<T, String> idGetter) {
+        boolean hasNextPage = rows.size() > size;
+        List<ConnectionDTO.Edge<T>> edges = rows.stream()
+                .limit(size)
+                .map(row -> new ConnectionDTO.Edge<>(Cursors.encode(idGetter.apply(row)), row))
+                .toList();
+
+        return ConnectionDTO.<T>builder()
+                .edges(edges)
+                .pageInfo(new ConnectionDTO.PageInfo(hasNextPage,
+                        edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor()))
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.esatic.assignmentapp.controller;
+
+import com.esatic.assignmentapp.dto.StoredFileDTO;
+import com.esatic.assignmentapp.dto.UploadSessionDTO;
+import com.esatic.assignmentapp.security.JwtPrincipal;
+import com.esatic.assignmentapp.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Uploads reprenables des pièces jointes de devoirs :
+ * <ol>
+ *     <li>{@code POST /api/uploads/resumable} crée la session (taille totale annoncée)</li>
+ *     <li>{@code PATCH /{id}} envoie un morceau à l'offset {@code Upload-Offset}</li>
+ *     <li>{@code HEAD /{id}} donne l'offset courant après une coupure</li>
+ *     <li>{@code POST /{id}/complete} rattache le fichier au devoir</li>
+ * </ol>
+ */
+@RestController
+@RequestMapping("/api/uploads/resumable")
+@RequiredArgsConstructor
+@PreAuthorize("isAuthenticated()")
+public class ResumableUploadController {
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final ResumableUploadService resumableUploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionDTO> create(
+            @RequestParam("assignmentId") String assignmentId,
+            @RequestParam("name") String name,
+            @RequestParam("contentType") String contentType,
+            @RequestHeader(UPLOAD_LENGTH) long length,
+            @AuthenticationPrincipal JwtPrincipal principal) throws IOException {
+        UploadSessionDTO session = resumableUploadService.create(assignmentId, name, contentType, length, principal);
+        return ResponseEntity.created(URI.create("/api/uploads/resumable/" + session.getId()))
+                .header(UPLOAD_OFFSET, "0")
+                .header(UPLOAD_LENGTH, String.valueOf(length))
+                .body(session);
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> offset(@PathVariable String id, @AuthenticationPrincipal JwtPrincipal principal) {
+        UploadSessionDTO session = resumableUploadService.status(id, principal);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .header(UPLOAD_OFFSET, String.valueOf(session.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(session.getLength()))
+                .build();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionDTO> status(@PathVariable String id, @AuthenticationPrincipal JwtPrincipal principal) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(resumableUploadService.status(id, principal));
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> appendChunk(
+            @PathVariable String id,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            @AuthenticationPrincipal JwtPrincipal principal,
+            HttpServletRequest request) throws IOException {
+        long newOffset = resumableUploadService.appendChunk(id, offset, request.getInputStream(), principal);
+        return ResponseEntity.noContent()
+                .header(UPLOAD_OFFSET, String.valueOf(newOffset))
+                .build();
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<StoredFileDTO> complete(@PathVariable String id, @AuthenticationPrincipal JwtPrincipal principal)
+            throws IOException {
+        return ResponseEntity.ok(resumableUploadService.complete(id, principal));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> abort(@PathVariable String id, @AuthenticationPrincipal JwtPrincipal principal)
+            throws IOException {
+        resumableUploadService.abort(id, principal);
+        return ResponseEntity.noContent().build();
+    }
+}
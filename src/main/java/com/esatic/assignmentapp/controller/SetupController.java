@@ -42,6 +42,9 @@ public class SetupController {
     private final PasswordEncoder passwordEncoder;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+
+    // Hachage partagé du mot de passe commun des comptes générés
+    private String seedPasswordHash;
     private boolean useDataCache = true;
 
     @Value("${app.mockaroo.api-key:6bddbd20}")
@@ -122,7 +125,7 @@ public class SetupController {
                     .lastName("Test")
                     .username("student")
                     .email("student@example.com")
-                    .password(passwordEncoder.encode("password"))
+                    .password(seedPassword())
                     .role("STUDENT")
                     .classId(savedClass)
                     .enabled(true)
@@ -142,7 +145,7 @@ public class SetupController {
                     .lastName("Martin")
                     .username("teacher")
                     .email("prof.martin@example.com")
-                    .password(passwordEncoder.encode("password"))
+                    .password(seedPassword())
                     .role("TEACHER")
                     .photoUrl("https://randomuser.me/api/portraits/men/42.jpg")
                     .teachingSubjects(new ArrayList<>())
@@ -441,7 +444,7 @@ public class SetupController {
                         .lastName((String) data.get("last_name"))
                         .username("admin" + (i + 2))
                         .email(data.get("email").toString())
-                        .password(passwordEncoder.encode("password"))
+                        .password(seedPassword())
                         .role("ADMIN")
                         .photoUrl(data.get("avatar").toString())
                         .enabled(true)
@@ -525,7 +528,7 @@ public class SetupController {
                         .lastName((String) data.get("last_name"))
                         .username("teacher" + (j + 1))
                         .email(data.get("email").toString())
-                        .password(passwordEncoder.encode("password"))
+                        .password(seedPassword())
                         .role("TEACHER")
                         .photoUrl(data.get("avatar").toString())
                         .teachingSubjects(new ArrayList<>())
@@ -657,7 +660,7 @@ public class SetupController {
                         .lastName((String) data.get("last_name"))
                         .username("student" + (j + 1))
                         .email(data.get("email").toString())
-                        .password(passwordEncoder.encode("password"))
+                        .password(seedPassword())
                         .role("STUDENT")
                         .photoUrl(data.get("avatar").toString())
                         .classId(studentClass)
@@ -821,4 +824,12 @@ public class SetupController {
         File file = new File(cacheFile);
         objectMapper.writeValue(file, data);
     }
-}
\ No newline at end of file
+
+    // Tous les comptes générés ont le même mot de passe : un seul hachage au lieu d'un par utilisateur
+    private String seedPassword() {
+        if (seedPasswordHash == null) {
+            seedPasswordHash = passwordEncoder.encode("password");
+        }
+        return seedPasswordHash;
+    }
+}
@@ -1,18 +1,22 @@
 package com.esatic.assignmentapp.controller;
 
 import com.esatic.assignmentapp.dto.ErrorResponse;
+import com.esatic.assignmentapp.dto.PaginatedResponse;
 import com.esatic.assignmentapp.dto.SubjectDTO;
 import com.esatic.assignmentapp.dto.SubjectResponseDTO;
 import com.esatic.assignmentapp.exception.ResourceNotFoundException;
 import com.esatic.assignmentapp.service.SubjectService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/subjects")
@@ -23,8 +27,18 @@ public class SubjectController {
     private final SubjectService subjectService;
 
     @GetMapping
-    public ResponseEntity<List<SubjectResponseDTO>> getAllSubjects() {
-        return ResponseEntity.ok(subjectService.getAllSubjects());
+    public ResponseEntity<PaginatedResponse<SubjectResponseDTO>> getAllSubjects(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(subjectService.getAllSubjects(page, limit, after));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportSubjects(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        subjectService.exportSubjects(response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -46,7 +60,7 @@ public class SubjectController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteSubject(@PathVariable String id) {
-        subjectService.deleteSubject(id);
-        return ResponseEntity.noContent().build();
+        boolean background = subjectService.deleteSubject(id);
+        return background ? ResponseEntity.accepted().build() : ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -1,16 +1,19 @@
 package com.esatic.assignmentapp.controller;
 
+import com.esatic.assignmentapp.dto.PaginatedResponse;
 import com.esatic.assignmentapp.dto.TeacherDTO;
 import com.esatic.assignmentapp.dto.TeacherResponseDTO;
 import com.esatic.assignmentapp.service.TeacherService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/teachers")
@@ -20,8 +23,18 @@ public class TeacherController {
     private final TeacherService teacherService;
 
     @GetMapping
-    public ResponseEntity<List<TeacherResponseDTO>> getAllTeachers() {
-        return ResponseEntity.ok(teacherService.getAllTeachers());
+    public ResponseEntity<PaginatedResponse<TeacherResponseDTO>> getAllTeachers(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(teacherService.getAllTeachers(page, limit, after));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportTeachers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        teacherService.exportTeachers(response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -1,17 +1,21 @@
 package com.esatic.assignmentapp.controller;
 
+import com.esatic.assignmentapp.dto.PaginatedResponse;
+import com.esatic.assignmentapp.dto.UserResponseDTO;
 import com.esatic.assignmentapp.model.User;
 import com.esatic.assignmentapp.service.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -24,24 +28,29 @@ public class UserController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        // Ne pas renvoyer les mots de passe
-        users.forEach(user -> user.setPassword(null));
-        return ResponseEntity.ok(users);
+    public ResponseEntity<PaginatedResponse<UserResponseDTO>> getAllUsers(
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(userService.getAllUsers(page, limit, after));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        userService.exportUsers(response.getOutputStream());
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or authentication.principal.id == #id")
-    public ResponseEntity<User> getUserById(@PathVariable String id) {
-        User user = userService.getUserById(id);
-        user.setPassword(null); // Ne pas renvoyer le mot de passe
-        return ResponseEntity.ok(user);
+    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable String id) {
+        return ResponseEntity.ok(userService.getUserResponseById(id));
     }
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<User> createUser(@RequestBody User user) {
+    public ResponseEntity<UserResponseDTO> createUser(@RequestBody User user) {
         // Encoder le mot de passe
         if (user.getPassword() != null) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
@@ -58,15 +67,14 @@ public class UserController {
         // Activer le compte par défaut
         user.setEnabled(true);
 
-        User savedUser = userService.saveUser(user);
-        savedUser.setPassword(null); // Ne pas renvoyer le mot de passe
+        User savedUser = userService.createUser(user);
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
+        return ResponseEntity.status(HttpStatus.CREATED).body(userService.toResponseDTO(savedUser));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or authentication.principal.id == #id")
-    public ResponseEntity<User> updateUser(@PathVariable String id, @RequestBody User user) {
+    public ResponseEntity<UserResponseDTO> updateUser(@PathVariable String id, @RequestBody User user) {
         User existingUser = userService.getUserById(id);
 
         // Mise à jour des champs autorisés
@@ -76,29 +84,33 @@ public class UserController {
         if (user.getPhotoUrl() != null) existingUser.setPhotoUrl(user.getPhotoUrl());
 
         // Seul l'admin peut modifier certains champs
-        if (user.getRole() != null && hasAdminRole()) {
+        boolean roleChanged = false;
+        if (user.getRole() != null && hasAdminRole() && !user.getRole().equals(existingUser.getRole())) {
             existingUser.setRole(user.getRole());
+            roleChanged = true;
         }
 
         // Mettre à jour la date de modification
         existingUser.setUpdatedAt(new Date());
 
         User updatedUser = userService.saveUser(existingUser);
-        updatedUser.setPassword(null); // Ne pas renvoyer le mot de passe
+        if (roleChanged) {
+            userService.revokeTokens(id);
+        }
 
-        return ResponseEntity.ok(updatedUser);
+        return ResponseEntity.ok(userService.toResponseDTO(updatedUser));
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteUser(@PathVariable String id) {
-        userService.deleteUser(id);
-        return ResponseEntity.noContent().build();
+        boolean background = userService.deleteUser(id);
+        return background ? ResponseEntity.accepted().build() : ResponseEntity.noContent().build();
     }
 
     @PatchMapping("/{id}/role")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<User> updateUserRole(@PathVariable String id, @RequestBody Map<String, String> payload) {
+    public ResponseEntity<UserResponseDTO> updateUserRole(@PathVariable String id, @RequestBody Map<String, String> payload) {
         String role = payload.get("role");
         if (role == null) {
             return ResponseEntity.badRequest().build();
@@ -109,9 +121,9 @@ public class UserController {
         user.setUpdatedAt(new Date());
 
         User updatedUser = userService.saveUser(user);
-        updatedUser.setPassword(null); // Ne pas renvoyer le mot de passe
+        userService.revokeTokens(id);
 
-        return ResponseEntity.ok(updatedUser);
+        return ResponseEntity.ok(userService.toResponseDTO(updatedUser));
     }
 
     @PostMapping("/{id}/reset-password")
@@ -125,6 +137,7 @@ public class UserController {
         user.setUpdatedAt(new Date());
 
         userService.saveUser(user);
+        userService.revokeTokens(id);
 
         // Dans un cas réel, vous enverriez le mot de passe par email
         Map<String, Object> response = new HashMap<>();
@@ -0,0 +1,19 @@
+package com.esatic.assignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveReportDTO {
+    private long movedCount;
+    private int batches;
+    private List<String> closedYears;
+    private long durationMs;
+}
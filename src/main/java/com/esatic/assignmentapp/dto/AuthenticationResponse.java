@@ -1,6 +1,5 @@
 package com.esatic.assignmentapp.dto;
 
-import com.esatic.assignmentapp.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,6 +11,6 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class AuthenticationResponse {
     private String token;
-    private User user;
+    private UserResponseDTO user;
 
 }
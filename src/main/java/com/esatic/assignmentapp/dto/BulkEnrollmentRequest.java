@@ -0,0 +1,17 @@
+package com.esatic.assignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEnrollmentRequest {
+    private List<String> add;    // IDs des étudiants à inscrire
+    private List<String> remove; // IDs des étudiants à désinscrire
+}
@@ -0,0 +1,19 @@
+package com.esatic.assignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOperationReportDTO {
+    private String operation;
+    private long requested;
+    private long matched;
+    private long modified;
+    private int batches;
+    private long durationMs;
+}
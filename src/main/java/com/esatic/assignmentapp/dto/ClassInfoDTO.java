@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-class ClassInfoDTO {
+public class ClassInfoDTO {
     private String id;
     private String name;
     private String year;
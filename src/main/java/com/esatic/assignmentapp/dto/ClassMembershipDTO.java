@@ -0,0 +1,21 @@
+package com.esatic.assignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Réponse compacte d'une inscription ou désinscription : le changement effectué
+ * et le nouvel effectif, sans la liste des étudiants.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClassMembershipDTO {
+    private String classId;
+    private String studentId;
+    private String action; // ADDED, REMOVED ou UNCHANGED
+    private long studentCount;
+}
@@ -1,5 +1,6 @@
 package com.esatic.assignmentapp.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,7 +18,10 @@ public class ClassResponseDTO {
     private String name;
     private String year;
     private String description;
-    private List<StudentInfoDTO> students;
+    private long studentCount;
+    private String studentsUrl;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<StudentInfoDTO> students; // uniquement sur le détail d'une classe
     private Date createdAt;
     private Date updatedAt;
 }
\ No newline at end of file
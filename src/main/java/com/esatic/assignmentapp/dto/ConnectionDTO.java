@@ -0,0 +1,33 @@
+package com.esatic.assignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConnectionDTO<T> {
+    private List<Edge<T>> edges;
+    private PageInfo pageInfo;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Edge<T> {
+        private String cursor;
+        private T node;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PageInfo {
+        private boolean hasNextPage;
+        private String endCursor;
+    }
+}
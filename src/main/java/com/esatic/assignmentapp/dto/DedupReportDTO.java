@@ -0,0 +1,17 @@
+package com.esatic.assignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DedupReportDTO {
+    private long files;
+    private long duplicates;
+    private long bytesReclaimed;
+    private long durationMs;
+}
@@ -13,7 +13,7 @@ import java.util.List;
 @AllArgsConstructor
 public class PaginatedResponse<T> {
     private List<T> docs;
-    private long totalDocs;
+    private Long totalDocs; // absent en pagination par curseur (pas de comptage)
     private int limit;
     private int page;
     private int totalPages;
@@ -22,4 +22,5 @@ public class PaginatedResponse<T> {
     private boolean hasNextPage;
     private Integer prevPage;
     private Integer nextPage;
+    private String nextCursor; // pagination par curseur : à renvoyer dans ?after=
 }
@@ -0,0 +1,19 @@
+package com.esatic.assignmentapp.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromotionRequest {
+    // ID de la classe de l'année N -> ID de la classe qui lui succède en année N+1
+    @NotEmpty(message = "Au moins une correspondance de classes est requise")
+    private Map<String, String> mapping;
+}
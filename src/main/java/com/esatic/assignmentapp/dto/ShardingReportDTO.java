@@ -0,0 +1,18 @@
+package com.esatic.assignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardingReportDTO {
+    private boolean enabled;
+    private boolean finished;
+    private long moved;
+    private int batchSize;
+    private long pauseMs;
+}
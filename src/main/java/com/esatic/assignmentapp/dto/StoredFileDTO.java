@@ -0,0 +1,18 @@
+package com.esatic.assignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredFileDTO {
+    private String fileUrl;
+    private String name;
+    private String contentType;
+    private long size;
+    private String sha256;
+}
@@ -0,0 +1,21 @@
+package com.esatic.assignmentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionDTO {
+    private String id;
+    private String assignmentId;
+    private String name;
+    private long length;
+    private long offset;
+    private Date expiresAt;
+}
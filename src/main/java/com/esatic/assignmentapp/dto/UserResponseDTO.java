@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Date;
 import java.util.List;
 
 @Data
@@ -19,6 +20,9 @@ public class UserResponseDTO {
     private String lastName;
     private String role;
     private String photoUrl;
+    private boolean enabled;
+    private Date createdAt;
+    private Date updatedAt;
 
     private ClassInfoDTO classInfo; // pour les étudiants
     private List<SubjectInfoDTO> teachingSubjects; // pour les profs
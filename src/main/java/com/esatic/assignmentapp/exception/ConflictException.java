@@ -0,0 +1,11 @@
+package com.esatic.assignmentapp.exception;
+
+/**
+ * Requête incompatible avec l'état courant de la ressource (409).
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.esatic.assignmentapp.exception;
+
+/**
+ * Contenu envoyé au-delà de la taille autorisée (413).
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.esatic.assignmentapp.exception;
+
+import lombok.Getter;
+
+/**
+ * Capacité de traitement saturée : la requête est refusée immédiatement (503) plutôt que mise en attente.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
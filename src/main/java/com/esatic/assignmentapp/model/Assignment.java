@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -16,22 +18,24 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Document(collection = "assignments")
+@CompoundIndex(name = "rendu_dateDeRendu", def = "{'rendu': 1, 'dateDeRendu': -1}")
 public class Assignment {
 
     @Id
     private String id;
     private String nom;
+    @Indexed
     private Date dateDeRendu;
     private boolean rendu;
-    @DBRef
+    @DBRef(lazy = true)
     private User auteur;
-    @DBRef
+    @DBRef(lazy = true)
     private Subject matiere;
     private Double note;
     private String remarques;
     private Date createdAt;
     private Date updatedAt;
-    @DBRef
+    @DBRef(lazy = true)
     private Class classId;
     private List<String> attachments;
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.esatic.assignmentapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Contenu stocké une seule fois sous son empreinte SHA-256 ; {@code refCount} fichiers y renvoient.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "blobs")
+public class Blob {
+    @Id
+    private String id; // SHA-256 hexadécimal
+    private long size; // taille d'origine
+    private Long storedSize; // taille sur disque (absente pour les contenus antérieurs à la compression)
+    private String encoding; // "gzip" si stocké compressé
+    private long refCount;
+    private Date createdAt;
+    private Date deletingSince; // suppression des objets en cours : aucun rattachement avant le retrait du document
+}
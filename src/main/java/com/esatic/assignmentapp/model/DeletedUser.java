@@ -0,0 +1,28 @@
+package com.esatic.assignmentapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Compte supprimé dont des tokens peuvent encore circuler. Mongo supprime l'entrée à {@code expiresAt},
+ * quand le dernier token émis pour ce compte a expiré.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "deleted_users")
+public class DeletedUser {
+    @Id
+    private String id; // identifiant de l'utilisateur supprimé
+    private Date deletedAt;
+    @Indexed(expireAfterSeconds = 0)
+    private Date expiresAt;
+}
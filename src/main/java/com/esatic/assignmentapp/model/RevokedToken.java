@@ -0,0 +1,29 @@
+package com.esatic.assignmentapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Token révoqué avant son expiration (déconnexion). Mongo supprime l'entrée à {@code expiresAt}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "revoked_tokens")
+public class RevokedToken {
+    @Id
+    private String id; // claim jti du token
+    private String userId;
+    @Indexed(expireAfterSeconds = 0)
+    private Date expiresAt;
+    @Indexed
+    private Date revokedAt;
+}
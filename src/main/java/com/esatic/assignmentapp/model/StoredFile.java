@@ -0,0 +1,31 @@
+package com.esatic.assignmentapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Fichier exposé par une URL stable ({@code /uploads/<kind>/<id>}) et dont le contenu est le blob {@code sha256}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "stored_files")
+public class StoredFile {
+    @Id
+    private String id; // nom de fichier public, ex. 3f2c...-e1.pdf
+    private String kind; // "assignments" ou "profiles"
+    @Indexed
+    private String sha256;
+    private String name;
+    private String contentType;
+    private long size;
+    private Date createdAt;
+}
@@ -22,7 +22,7 @@ public class Subject {
     private String name;
     private String imageUrl;
 
-    @DBRef
+    @DBRef(lazy = true)
     private Teacher teacher;  // Garder Teacher comme type
 
     private String color;
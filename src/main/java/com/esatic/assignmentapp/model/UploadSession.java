@@ -0,0 +1,34 @@
+package com.esatic.assignmentapp.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Upload reprenable en cours : les octets reçus jusqu'à {@code offset} sont dans {@code uploads/partial/<id>.part}.
+ * Mongo supprime la session à {@code expiresAt}, repoussé à chaque morceau reçu.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "upload_sessions")
+public class UploadSession {
+    @Id
+    private String id;
+    private String assignmentId;
+    private String userId;
+    private String name;
+    private String contentType;
+    private long length;
+    private long offset;
+    private Date createdAt;
+    @Indexed(expireAfterSeconds = 0)
+    private Date expiresAt;
+}
@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.security.core.GrantedAuthority;
@@ -20,11 +23,19 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Document(collection = "users")
+@CompoundIndex(name = "classId_id", def = "{'classId.$id': 1, '_id': 1}")
 public class User implements UserDetails {
 
+    // Unicité insensible à la casse : les requêtes sur username et email doivent utiliser la même collation
+    public static final String CASE_INSENSITIVE = "{ 'locale': 'fr', 'strength': 2 }";
+    public static final String USERNAME_INDEX = "username_ci";
+    public static final String EMAIL_INDEX = "email_ci";
+
     @Id
     private String id;
+    @Indexed(name = USERNAME_INDEX, unique = true, collation = CASE_INSENSITIVE)
     private String username;
+    @Indexed(name = EMAIL_INDEX, unique = true, collation = CASE_INSENSITIVE)
     private String email;
     private String password;
     private String role;
@@ -33,10 +44,17 @@ public class User implements UserDetails {
     private String photoUrl;
     private Date createdAt;
     private Date updatedAt;
+    @Indexed(name = "disabled", partialFilter = "{ 'enabled': false }")
     private boolean enabled = true;
-    @DBRef
+    // Incrémenté par TokenVersionRegistry pour invalider les tokens déjà émis ; jamais réécrit par save()
+    @ReadOnlyProperty
+    private Long tokenVersion;
+    @ReadOnlyProperty
+    @Indexed(sparse = true)
+    private Date tokenVersionChangedAt;
+    @DBRef(lazy = true)
     private Class classId; // Pour les étudiants
-    @DBRef
+    @DBRef(lazy = true)
     private List<Subject> teachingSubjects; // Pour les professeurs
 
     @Override
@@ -0,0 +1,63 @@
+package com.esatic.assignmentapp.repository;
+
+import com.esatic.assignmentapp.model.Class;
+import com.esatic.assignmentapp.model.Subject;
+import com.esatic.assignmentapp.model.Teacher;
+import com.esatic.assignmentapp.model.User;
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+
+/**
+ * Identifiants Mongo et références {@code @DBRef} lus sans résoudre la référence.
+ */
+public final class MongoIds {
+
+    private MongoIds() {
+    }
+
+    /**
+     * Extrait l'identifiant d'une référence sans la résoudre.
+     * Accepte une entité déjà chargée, un proxy {@code @DBRef(lazy = true)} ou {@code null}.
+     */
+    public static String refId(Object reference) {
+        if (reference == null) {
+            return null;
+        }
+        if (reference instanceof LazyLoadingProxy proxy) {
+            DBRef dbRef = proxy.toDBRef();
+            return dbRef != null && dbRef.getId() != null ? dbRef.getId().toString() : null;
+        }
+        if (reference instanceof User user) {
+            return user.getId();
+        }
+        if (reference instanceof Subject subject) {
+            return subject.getId();
+        }
+        if (reference instanceof Class classEntity) {
+            return classEntity.getId();
+        }
+        if (reference instanceof Teacher teacher) {
+            return teacher.getId();
+        }
+        throw new IllegalArgumentException("Type de référence non pris en charge: " + reference.getClass().getName());
+    }
+
+    /**
+     * Identifiant d'une DBRef lue brute : selon le codec, {@link DBRef} ou sous-document {@code {$ref, $id}}.
+     */
+    public static String rawRefId(Object value) {
+        if (value instanceof DBRef dbRef) {
+            return dbRef.getId() != null ? dbRef.getId().toString() : null;
+        }
+        if (value instanceof Document document && document.get("$id") != null) {
+            return document.get("$id").toString();
+        }
+        return null;
+    }
+
+    public static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
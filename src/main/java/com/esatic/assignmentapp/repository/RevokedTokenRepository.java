@@ -0,0 +1,16 @@
+package com.esatic.assignmentapp.repository;
+
+import com.esatic.assignmentapp.model.RevokedToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends MongoRepository<RevokedToken, String> {
+
+    List<RevokedToken> findByExpiresAtAfter(Date now);
+
+    List<RevokedToken> findByRevokedAtGreaterThanEqual(Date since);
+}
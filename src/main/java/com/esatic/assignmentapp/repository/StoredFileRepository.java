@@ -0,0 +1,9 @@
+package com.esatic.assignmentapp.repository;
+
+import com.esatic.assignmentapp.model.StoredFile;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StoredFileRepository extends MongoRepository<StoredFile, String> {
+}
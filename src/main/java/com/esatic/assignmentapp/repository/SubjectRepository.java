@@ -6,4 +6,4 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SubjectRepository extends MongoRepository<Subject, String> {
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package com.esatic.assignmentapp.repository;
+
+import com.esatic.assignmentapp.model.UploadSession;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UploadSessionRepository extends MongoRepository<UploadSession, String> {
+}
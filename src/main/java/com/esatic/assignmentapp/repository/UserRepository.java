@@ -2,17 +2,20 @@ package com.esatic.assignmentapp.repository;
 
 import com.esatic.assignmentapp.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
+    @Query(value = "{ 'username': ?0 }", collation = User.CASE_INSENSITIVE)
     Optional<User> findByUsername(String username);
+
+    @Query(value = "{ 'email': ?0 }", collation = User.CASE_INSENSITIVE)
     Optional<User> findByEmail(String email);
-    boolean existsByUsername(String username);
-    boolean existsByEmail(String email);
+
     List<User> findByClassId(String classId);
     List<User> findByRole(String role);
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.esatic.assignmentapp.repository;
+
+import com.esatic.assignmentapp.model.User;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Requêtes sur les utilisateurs qui ne s'expriment pas en méthodes dérivées.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Nombre d'étudiants par classe, calculé par une seule agrégation {@code $group}.
+     * Les classes sans étudiant sont absentes de la map.
+     */
+    Map<String, Long> countStudentsByClass(Collection<String> classIds);
+
+    /**
+     * Page d'étudiants d'une classe triée par {@code _id}, après {@code afterId} (exclu).
+     * Filtre optionnel sur le début du prénom ou du nom. Les utilisateurs renvoyés sont des projections
+     * sans mot de passe ni DBRef.
+     */
+    List<User> findStudentsPage(String classId, String nameFilter, String afterId, int limit);
+
+    long countStudents(String classId, String nameFilter);
+
+    /**
+     * Rattache en un seul {@code updateMany} les étudiants donnés à une classe (les autres rôles sont ignorés).
+     */
+    UpdateResult assignStudentsToClass(Collection<String> studentIds, String classId);
+
+    /**
+     * Détache en un seul {@code updateMany} les étudiants donnés, s'ils appartiennent bien à la classe.
+     */
+    UpdateResult removeStudentsFromClass(Collection<String> studentIds, String classId);
+
+    /**
+     * Déplace tous les membres d'une classe vers une autre.
+     */
+    UpdateResult moveStudents(String fromClassId, String toClassId);
+
+    /**
+     * Document brut d'un utilisateur, sans mot de passe : les DBRef restent non résolues.
+     */
+    Optional<Document> findViewById(String id);
+
+    /**
+     * Identifiants des matières enseignées, lus directement dans les DBRef.
+     */
+    List<String> findTeachingSubjectIds(String userId);
+
+    /**
+     * Remplace le hachage du mot de passe seulement s'il n'a pas changé entre-temps
+     * (réencodage transparent à la connexion, sans écraser un changement de mot de passe concurrent).
+     */
+    boolean replacePasswordHash(String userId, String expectedHash, String newHash);
+}
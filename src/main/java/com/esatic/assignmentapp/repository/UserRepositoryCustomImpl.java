@@ -0,0 +1,147 @@
+package com.esatic.assignmentapp.repository;
+
+import com.esatic.assignmentapp.model.Class;
+import com.esatic.assignmentapp.model.User;
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final List<String> STUDENT_FIELDS = List.of("firstName", "lastName", "email", "photoUrl");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Map<String, Long> countStudentsByClass(Collection<String> classIds) {
+        Map<String, Long> counts = new HashMap<>();
+        if (classIds.isEmpty()) {
+            return counts;
+        }
+
+        // Regroupement sur la DBRef entière : "$classId.$id" n'est pas un chemin valide en agrégation
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("classId.$id",
+                        new Document("$in", objectIds(classIds)))),
+                new Document("$group", new Document("_id", "$classId").append("count", new Document("$sum", 1))));
+
+        users().aggregate(pipeline)
+                .forEach(document -> counts.put(MongoIds.rawRefId(document.get("_id")),
+                        ((Number) document.get("count")).longValue()));
+        return counts;
+    }
+
+    @Override
+    public List<User> findStudentsPage(String classId, String nameFilter, String afterId, int limit) {
+        Document filter = studentsFilter(classId, nameFilter);
+        if (afterId != null) {
+            filter.append("_id", new Document("$gt", MongoIds.toObjectId(afterId)));
+        }
+
+        List<User> students = new ArrayList<>();
+        users().find(filter)
+                .projection(Projections.include(STUDENT_FIELDS))
+                .sort(Sorts.ascending("_id"))
+                .limit(limit)
+                .forEach(document -> students.add(mongoTemplate.getConverter().read(User.class, document)));
+        return students;
+    }
+
+    @Override
+    public long countStudents(String classId, String nameFilter) {
+        return users().countDocuments(studentsFilter(classId, nameFilter));
+    }
+
+    @Override
+    public UpdateResult assignStudentsToClass(Collection<String> studentIds, String classId) {
+        Document filter = new Document("_id", new Document("$in", objectIds(studentIds)))
+                .append("role", "STUDENT");
+        return users().updateMany(filter, Updates.combine(
+                Updates.set("classId", classRef(classId)),
+                Updates.set("updatedAt", new Date())));
+    }
+
+    @Override
+    public UpdateResult removeStudentsFromClass(Collection<String> studentIds, String classId) {
+        Document filter = new Document("_id", new Document("$in", objectIds(studentIds)))
+                .append("classId.$id", MongoIds.toObjectId(classId));
+        return users().updateMany(filter, Updates.combine(
+                Updates.unset("classId"),
+                Updates.set("updatedAt", new Date())));
+    }
+
+    @Override
+    public UpdateResult moveStudents(String fromClassId, String toClassId) {
+        return users().updateMany(new Document("classId.$id", MongoIds.toObjectId(fromClassId)), Updates.combine(
+                Updates.set("classId", classRef(toClassId)),
+                Updates.set("updatedAt", new Date())));
+    }
+
+    @Override
+    public Optional<Document> findViewById(String id) {
+        return Optional.ofNullable(users().find(new Document("_id", MongoIds.toObjectId(id)))
+                .projection(Projections.exclude("password"))
+                .first());
+    }
+
+    @Override
+    public List<String> findTeachingSubjectIds(String userId) {
+        Document document = users().find(new Document("_id", MongoIds.toObjectId(userId)))
+                .projection(Projections.include("teachingSubjects"))
+                .first();
+        if (document == null || document.get("teachingSubjects") == null) {
+            return List.of();
+        }
+        return document.getList("teachingSubjects", Object.class).stream()
+                .map(MongoIds::rawRefId)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public boolean replacePasswordHash(String userId, String expectedHash, String newHash) {
+        Document filter = new Document("_id", MongoIds.toObjectId(userId))
+                .append("password", expectedHash);
+        return users().updateOne(filter, Updates.set("password", newHash)).getModifiedCount() > 0;
+    }
+
+    private MongoCollection<Document> users() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class));
+    }
+
+    private DBRef classRef(String classId) {
+        return new DBRef(mongoTemplate.getCollectionName(Class.class), MongoIds.toObjectId(classId));
+    }
+
+    private static List<Object> objectIds(Collection<String> ids) {
+        return ids.stream().map(MongoIds::toObjectId).toList();
+    }
+
+    private Document studentsFilter(String classId, String nameFilter) {
+        Document filter = new Document("classId.$id", MongoIds.toObjectId(classId));
+        if (nameFilter != null && !nameFilter.isBlank()) {
+            Pattern prefix = Pattern.compile("^" + Pattern.quote(nameFilter.trim()), Pattern.CASE_INSENSITIVE);
+            filter.append("$or", List.of(
+                    new Document("firstName", prefix),
+                    new Document("lastName", prefix)));
+        }
+        return filter;
+    }
+}
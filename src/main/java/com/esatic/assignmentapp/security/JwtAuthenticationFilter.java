@@ -4,12 +4,9 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,17 +17,14 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private UserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationService tokenRevocationService;
 
-    // Le constructeur n'injecte que JwtService
-    public JwtAuthenticationFilter(JwtService jwtService) {
+    public JwtAuthenticationFilter(JwtService jwtService, TokenVersionRegistry tokenVersionRegistry,
+                                   TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
-    }
-
-    // Méthode setter pour injecter UserDetailsService de façon lazy
-    @Lazy
-    public void setUserDetailsService(UserDetailsService userDetailsService) {
-        this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -56,17 +50,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             final String jwt = authHeader.substring(7);
-            final String username = jwtService.extractUsername(jwt);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
-                    && userDetailsService != null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            // Principal construit à partir des claims vérifiés : aucune lecture en base
+            final JwtPrincipal principal = jwtService.parsePrincipal(jwt);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                if (tokenVersionRegistry.isCurrent(principal.getId(), principal.getTokenVersion())
+                        && !tokenRevocationService.isRevoked(principal.getTokenId())) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
-                            userDetails.getAuthorities()
+                            principal.getAuthorities()
                     );
                     authToken.setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request)
@@ -0,0 +1,89 @@
+package com.esatic.assignmentapp.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Utilisateur authentifié, reconstruit uniquement à partir des claims vérifiés du JWT.
+ * <p>
+ * {@code classId} et {@code subjectIds} reflètent l'état au moment de l'émission du token.
+ */
+@Getter
+@AllArgsConstructor
+public class JwtPrincipal implements UserDetails {
+
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_CLASS_ID = "classId";
+    static final String CLAIM_SUBJECTS = "subjects";
+    static final String CLAIM_VERSION = "ver";
+
+    private final String id;
+    private final String username;
+    private final String role;
+    private final String classId;
+    private final List<String> subjectIds;
+    private final long tokenVersion;
+    private final String tokenId;
+    private final Date expiresAt;
+
+    /**
+     * @return {@code null} pour un token émis sans les claims du principal
+     */
+    static JwtPrincipal fromClaims(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null) {
+            return null;
+        }
+        List<?> subjects = claims.get(CLAIM_SUBJECTS, List.class);
+        Number version = claims.get(CLAIM_VERSION, Number.class);
+        return new JwtPrincipal(
+                userId,
+                claims.getSubject(),
+                role,
+                claims.get(CLAIM_CLASS_ID, String.class),
+                subjects == null ? List.of() : subjects.stream().map(Object::toString).toList(),
+                version != null ? version.longValue() : 0L,
+                claims.getId(),
+                claims.getExpiration());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -1,24 +1,27 @@
 package com.esatic.assignmentapp.security;
 
+import com.esatic.assignmentapp.model.User;
+import com.esatic.assignmentapp.repository.MongoIds;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private final JwtVerifier jwtVerifier;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
@@ -28,7 +31,7 @@ public class JwtService {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = jwtVerifier.parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
@@ -36,6 +39,35 @@ public class JwtService {
         return generateToken(new HashMap<>(), userDetails);
     }
 
+    /**
+     * Token autoportant : identifiant, rôle, classe et matières suffisent à reconstruire le principal
+     * sans relire l'utilisateur.
+     */
+    public String generateToken(User user, List<String> subjectIds) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtPrincipal.CLAIM_USER_ID, user.getId());
+        claims.put(JwtPrincipal.CLAIM_ROLE, user.getRole());
+        claims.put(JwtPrincipal.CLAIM_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0L);
+        String classId = MongoIds.refId(user.getClassId());
+        if (classId != null) {
+            claims.put(JwtPrincipal.CLAIM_CLASS_ID, classId);
+        }
+        if (subjectIds != null && !subjectIds.isEmpty()) {
+            claims.put(JwtPrincipal.CLAIM_SUBJECTS, subjectIds);
+        }
+        return generateToken(claims, user);
+    }
+
+    /**
+     * Principal d'un token valide, vérifié une seule fois puis servi depuis le cache jusqu'à son expiration.
+     *
+     * @return {@code null} pour un token émis sans les claims du principal
+     * @throws io.jsonwebtoken.JwtException si le token est invalide ou expiré
+     */
+    public JwtPrincipal parsePrincipal(String token) {
+        return jwtVerifier.verify(token);
+    }
+
     public String generateToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails
@@ -43,37 +75,11 @@ public class JwtService {
         return Jwts
                 .builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(jwtVerifier.getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package com.esatic.assignmentapp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vérification des JWT sur le chemin critique de chaque requête.
+ * <p>
+ * La clé HMAC et le parser sont construits une fois. Chaque token n'est parsé et vérifié qu'une fois :
+ * le principal obtenu est mémorisé, sous l'empreinte SHA-256 du token, jusqu'à l'expiration du token.
+ * Le cache est borné ({@code app.jwt.verified-cache-size}) ; plein, il est purgé des entrées expirées
+ * et, à défaut de place, d'un lot d'entrées arbitraires (1 % de la capacité, ordre de hachage) :
+ * les nouveaux tokens restent mémorisés et la purge complète n'a lieu qu'une fois par lot.
+ */
+@Component
+public class JwtVerifier {
+
+    private static final int EVICTION_PERCENT = 1;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    });
+
+    @Getter
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final int cacheSize;
+    private final Map<String, Verified> verified = new ConcurrentHashMap<>();
+
+    public JwtVerifier(@Value("${jwt.secret}") String secretKey,
+                       @Value("${app.jwt.verified-cache-size:10000}") int cacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Vérifie signature et expiration puis renvoie les claims (sans cache).
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * @return le principal du token, {@code null} si le token ne porte pas les claims attendus
+     * @throws io.jsonwebtoken.JwtException si le token est invalide ou expiré
+     */
+    public JwtPrincipal verify(String token) {
+        String key = fingerprint(token);
+        long now = System.currentTimeMillis();
+
+        Verified cached = verified.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached.principal();
+            }
+            verified.remove(key);
+            throw new ExpiredJwtException(null, null, "Token expiré");
+        }
+
+        Claims claims = parseClaims(token);
+        JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+        if (principal != null && claims.getExpiration() != null) {
+            remember(key, new Verified(principal, claims.getExpiration().getTime()), now);
+        }
+        return principal;
+    }
+
+    /**
+     * Retire un token du cache (révocation).
+     */
+    public void evict(String token) {
+        verified.remove(fingerprint(token));
+    }
+
+    private void remember(String key, Verified entry, long now) {
+        if (verified.size() >= cacheSize) {
+            verified.values().removeIf(value -> value.expiresAt() <= now);
+            int toEvict = verified.size() - cacheSize + Math.max(1, cacheSize * EVICTION_PERCENT / 100);
+            Iterator<String> keys = verified.keySet().iterator();
+            while (toEvict-- > 0 && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        verified.put(key, entry);
+    }
+
+    private static String fingerprint(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private record Verified(JwtPrincipal principal, long expiresAt) {
+    }
+}
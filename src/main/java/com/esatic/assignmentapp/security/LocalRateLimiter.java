@@ -0,0 +1,65 @@
+package com.esatic.assignmentapp.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limiteur propre au nœud, sans verrou.
+ * <p>
+ * Chaque seau est un seul {@link AtomicLong} (GCRA : instant théorique de la prochaine requête),
+ * mis à jour par compareAndSet ; les seaux sont répartis dans une {@link ConcurrentHashMap} par groupe,
+ * dont les lectures ne verrouillent pas. Un seau plein équivaut à un seau absent :
+ * ils sont purgés périodiquement.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.mode", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimiter implements RateLimiter {
+
+    private final RateLimits limits;
+    private final Map<RateLimitGroup, ConcurrentHashMap<String, AtomicLong>> buckets = new EnumMap<>(RateLimitGroup.class);
+
+    public LocalRateLimiter(RateLimits limits) {
+        this.limits = limits;
+        for (RateLimitGroup group : RateLimitGroup.values()) {
+            buckets.put(group, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Override
+    public long tryAcquire(String client, RateLimitGroup group) {
+        RateLimits.Limit limit = limits.get(group);
+        long interval = limit.intervalNanos();
+        long tolerance = limit.toleranceNanos();
+
+        ConcurrentHashMap<String, AtomicLong> groupBuckets = buckets.get(group);
+        AtomicLong tat = groupBuckets.get(client);
+        if (tat == null) {
+            tat = groupBuckets.computeIfAbsent(client, key -> new AtomicLong(System.nanoTime()));
+        }
+
+        while (true) {
+            long now = System.nanoTime();
+            long current = tat.get();
+            long next = (current - now > 0 ? current : now) + interval;
+            long ahead = next - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.purge-ms:60000}")
+    public void purge() {
+        long now = System.nanoTime();
+        buckets.values().forEach(groupBuckets -> groupBuckets.values().removeIf(tat -> tat.get() - now <= 0));
+    }
+}
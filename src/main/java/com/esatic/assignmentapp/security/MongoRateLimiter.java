@@ -0,0 +1,78 @@
+package com.esatic.assignmentapp.security;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReturnDocument;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget partagé entre les nœuds : même GCRA que {@link LocalRateLimiter}, appliqué atomiquement
+ * dans {@code rate_limits} par un pipeline de mise à jour (un aller-retour par requête).
+ * Les documents expirent (index TTL) dès que le seau est de nouveau plein.
+ * En cas d'indisponibilité de la base, les requêtes sont acceptées.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.mode", havingValue = "mongo")
+@RequiredArgsConstructor
+@Slf4j
+public class MongoRateLimiter implements RateLimiter {
+
+    private static final String COLLECTION = "rate_limits";
+
+    private final MongoTemplate mongoTemplate;
+    private final RateLimits limits;
+
+    @PostConstruct
+    public void createIndexes() {
+        collection().createIndex(Indexes.ascending("expiresAt"), new IndexOptions().expireAfter(0L, TimeUnit.SECONDS));
+    }
+
+    @Override
+    public long tryAcquire(String client, RateLimitGroup group) {
+        RateLimits.Limit limit = limits.get(group);
+        long interval = TimeUnit.NANOSECONDS.toMillis(limit.intervalNanos());
+        long tolerance = TimeUnit.NANOSECONDS.toMillis(limit.toleranceNanos());
+        long now = System.currentTimeMillis();
+
+        // next = max(tat, now) + interval ; accepté si next - now <= tolérance
+        Document next = new Document("$add", List.of(
+                new Document("$max", List.of(new Document("$ifNull", List.of("$tat", now)), now)), interval));
+        List<Bson> pipeline = List.of(
+                new Document("$set", new Document("allowed",
+                        new Document("$lte", List.of(new Document("$subtract", List.of(next, now)), tolerance)))),
+                new Document("$set", new Document("tat",
+                        new Document("$cond", List.of("$allowed", next, new Document("$ifNull", List.of("$tat", now)))))),
+                new Document("$set", new Document("expiresAt", new Document("$toDate", "$tat"))));
+
+        try {
+            Document bucket = collection().findOneAndUpdate(
+                    new Document("_id", group.getKey() + ":" + client),
+                    pipeline,
+                    new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+            if (bucket == null || bucket.getBoolean("allowed", true)) {
+                return 0;
+            }
+            long ahead = bucket.getLong("tat") + interval - now;
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(1, ahead - tolerance));
+        } catch (RuntimeException e) {
+            log.debug("Limiteur partagé indisponible, requête acceptée", e);
+            return 0;
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+}
@@ -0,0 +1,116 @@
+package com.esatic.assignmentapp.security;
+
+import com.esatic.assignmentapp.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool dédié au hachage et à la vérification des mots de passe.
+ * <p>
+ * BCrypt ne s'exécute plus sur les threads Tomcat : au plus {@code app.auth.hashing.threads} cœurs
+ * (par défaut tous sauf un) lui sont consacrés, et au-delà de {@code app.auth.hashing.queue-capacity}
+ * demandes en attente la requête échoue immédiatement en 503 avec {@code Retry-After}.
+ * Un pic de connexions ne peut donc pas priver les autres requêtes de CPU ni de threads.
+ * <p>
+ * Un hachage déjà commencé ne peut pas être interrompu (BCrypt ignore l'interruption) : après le délai
+ * {@code timeout-ms}, la requête échoue en 503 mais le calcul se termine et garde son thread. Il reste donc
+ * compté dans la capacité du pool (threads + file) et les nouvelles demandes sont refusées tant qu'il dure.
+ * Une demande encore en file est simplement annulée.
+ */
+@Component
+@Slf4j
+public class PasswordHashingPool {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer hashTimer;
+    private final Counter rejected;
+    private final long timeoutMs;
+    private final long retryAfterSeconds;
+
+    public PasswordHashingPool(MeterRegistry meterRegistry,
+                               @Value("${app.auth.hashing.threads:0}") int threads,
+                               @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+                               @Value("${app.auth.hashing.timeout-ms:5000}") long timeoutMs,
+                               @Value("${app.auth.hashing.retry-after-seconds:2}") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Durée d'un hachage ou d'une vérification de mot de passe")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Demandes refusées, file d'attente pleine")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue", executor, pool -> pool.getQueue().size())
+                .description("Demandes en attente de hachage")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hachages en cours")
+                .register(meterRegistry);
+        log.info("Pool de hachage des mots de passe : {} thread(s), file de {}", poolSize, queueCapacity);
+    }
+
+    public <T> T execute(Supplier<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.record(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw overloaded();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Retirée si elle attend encore ; sinon le hachage va à son terme (voir la documentation de la classe)
+            future.cancel(false);
+            rejected.increment();
+            throw overloaded();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new IllegalStateException("Hachage du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Échec du hachage du mot de passe", e.getCause());
+        }
+    }
+
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException(
+                "Trop de connexions simultanées, veuillez réessayer dans quelques instants", retryAfterSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,95 @@
+package com.esatic.assignmentapp.security;
+
+import com.esatic.assignmentapp.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limitation de débit, placée juste après {@link JwtAuthenticationFilter} : les requêtes authentifiées
+ * sont comptées par utilisateur, les autres par adresse IP. Au-delà de la limite du groupe de routes,
+ * réponse 429 avec {@code Retry-After}.
+ * <p>
+ * Derrière un proxy, l'adresse du client est celle de {@code X-Forwarded-For}, appliquée par Tomcat
+ * ({@code server.forward-headers-strategy=native}) uniquement pour les proxys déclarés dans
+ * {@code server.tomcat.remoteip.internal-proxies}. La liste est vide par défaut : l'en-tête est ignoré
+ * tant que l'exploitant n'y a pas inscrit son répartiteur de charge.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Map<RateLimitGroup, Counter> rejected = new EnumMap<>(RateLimitGroup.class);
+
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                           @Value("${app.rate-limit.enabled:true}") boolean enabled) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        for (RateLimitGroup group : RateLimitGroup.values()) {
+            rejected.put(group, Counter.builder("http.rate-limit.rejected")
+                    .description("Requêtes refusées par la limitation de débit")
+                    .tag("group", group.getKey())
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RateLimitGroup group = enabled && !"OPTIONS".equals(request.getMethod()) ? RateLimitGroup.of(request) : null;
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(clientKey(request), group);
+        if (waitNanos <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected.get(group).increment();
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Trop de requêtes, veuillez réessayer dans " + retryAfter + " seconde(s)",
+                System.currentTimeMillis()));
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return "u:" + principal.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
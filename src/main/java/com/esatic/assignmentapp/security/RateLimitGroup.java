@@ -0,0 +1,41 @@
+package com.esatic.assignmentapp.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Groupes de routes soumis à des limites distinctes ({@code app.rate-limit.<clé>.*}).
+ */
+@Getter
+@RequiredArgsConstructor
+public enum RateLimitGroup {
+    AUTH("auth", 10, 1),
+    READS("reads", 100, 50),
+    WRITES("writes", 30, 10),
+    UPLOADS("uploads", 10, 2);
+
+    private final String key;
+    private final long defaultCapacity;
+    private final double defaultPerSecond;
+
+    /**
+     * Groupe de la requête, ou {@code null} pour les routes non limitées (documentation, actuator...).
+     */
+    public static RateLimitGroup of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        if (!path.startsWith("/api/") && !path.startsWith("/graphql") && !path.startsWith("/uploads/")) {
+            return null;
+        }
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return READS;
+        }
+        // Seuls les envois de contenu consomment le quota d'upload ; les lectures de fichiers restent des lectures
+        boolean upload = path.startsWith("/api/uploads") || path.startsWith("/uploads/");
+        return upload && ("POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method)) ? UPLOADS : WRITES;
+    }
+}
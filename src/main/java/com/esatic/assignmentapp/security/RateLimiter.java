@@ -0,0 +1,14 @@
+package com.esatic.assignmentapp.security;
+
+/**
+ * Seaux à jetons par client et par groupe de routes.
+ */
+public interface RateLimiter {
+
+    /**
+     * Consomme un jeton.
+     *
+     * @return 0 si la requête est acceptée, sinon le délai en nanosecondes avant le prochain jeton
+     */
+    long tryAcquire(String client, RateLimitGroup group);
+}
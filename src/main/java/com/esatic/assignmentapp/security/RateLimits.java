@@ -0,0 +1,50 @@
+package com.esatic.assignmentapp.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limites par groupe de routes : {@code capacity} requêtes en rafale, rechargées à {@code per-second} par seconde.
+ */
+@Component
+public class RateLimits {
+
+    /**
+     * Seau exprimé en GCRA : une requête « coûte » {@code intervalNanos}, la rafale tolère {@code toleranceNanos} d'avance.
+     */
+    public record Limit(long capacity, double perSecond) {
+
+        public long intervalNanos() {
+            return Math.max(1, (long) (1_000_000_000d / perSecond));
+        }
+
+        public long toleranceNanos() {
+            return intervalNanos() * capacity;
+        }
+    }
+
+    private final Map<RateLimitGroup, Limit> limits;
+
+    @Autowired
+    public RateLimits(Environment environment) {
+        this.limits = new EnumMap<>(RateLimitGroup.class);
+        for (RateLimitGroup group : RateLimitGroup.values()) {
+            String prefix = "app.rate-limit." + group.getKey();
+            limits.put(group, new Limit(
+                    environment.getProperty(prefix + ".capacity", Long.class, group.getDefaultCapacity()),
+                    environment.getProperty(prefix + ".per-second", Double.class, group.getDefaultPerSecond())));
+        }
+    }
+
+    public RateLimits(Map<RateLimitGroup, Limit> limits) {
+        this.limits = new EnumMap<>(limits);
+    }
+
+    public Limit get(RateLimitGroup group) {
+        return limits.get(group);
+    }
+}
@@ -0,0 +1,104 @@
+package com.esatic.assignmentapp.security;
+
+import com.esatic.assignmentapp.model.RevokedToken;
+import com.esatic.assignmentapp.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Révocation de tokens avant expiration (déconnexion).
+ * <p>
+ * Les révocations sont persistées dans {@code revoked_tokens} (index TTL sur {@code expiresAt}).
+ * Chaque nœud en garde une copie : un filtre de Bloom répond à la quasi-totalité des vérifications
+ * (token non révoqué), l'ensemble exact n'est consulté que sur un positif.
+ * Les révocations des autres nœuds sont relues toutes les {@code app.jwt.revocation.sync-ms} ;
+ * le filtre est reconstruit toutes les {@code app.jwt.revocation.rebuild-ms} pour oublier les tokens expirés.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    // Marge pour les horloges des différents nœuds lors de la synchronisation incrémentale
+    private static final long SYNC_SKEW_MS = 5_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${app.jwt.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${app.jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile State state;
+    private volatile long lastSync;
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.rebuild-ms:600000}",
+            initialDelayString = "${app.jwt.revocation.rebuild-ms:600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        State rebuilt = new State(new BloomFilter(expectedRevocations, falsePositiveRate), new ConcurrentHashMap<>());
+        revokedTokenRepository.findByExpiresAtAfter(new Date(start)).forEach(rebuilt::add);
+        state = rebuilt;
+        lastSync = start - SYNC_SKEW_MS;
+        log.debug("Filtre de révocation reconstruit : {} token(s) révoqué(s)", rebuilt.exact().size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-ms:5000}")
+    public void sync() {
+        long start = System.currentTimeMillis();
+        List<RevokedToken> recent = revokedTokenRepository.findByRevokedAtGreaterThanEqual(new Date(lastSync));
+        State current = state;
+        recent.forEach(current::add);
+        lastSync = start - SYNC_SKEW_MS;
+    }
+
+    /**
+     * Vérification sur le chemin de chaque requête : aucun accès à la base.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        State current = state;
+        if (!current.bloom().mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = current.exact().get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public void revoke(JwtPrincipal principal) {
+        if (principal.getTokenId() == null || principal.getExpiresAt() == null) {
+            return;
+        }
+        RevokedToken revoked = revokedTokenRepository.save(RevokedToken.builder()
+                .id(principal.getTokenId())
+                .userId(principal.getId())
+                .expiresAt(principal.getExpiresAt())
+                .revokedAt(new Date())
+                .build());
+        state.add(revoked);
+    }
+
+    private record State(BloomFilter bloom, Map<String, Long> exact) {
+
+        void add(RevokedToken token) {
+            if (token.getExpiresAt() == null) {
+                return;
+            }
+            bloom.put(token.getId());
+            exact.put(token.getId(), token.getExpiresAt().getTime());
+        }
+    }
+}
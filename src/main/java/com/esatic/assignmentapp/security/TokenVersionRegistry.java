@@ -0,0 +1,123 @@
+package com.esatic.assignmentapp.security;
+
+import com.esatic.assignmentapp.model.DeletedUser;
+import com.esatic.assignmentapp.model.User;
+import com.esatic.assignmentapp.repository.MongoIds;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Version minimale des tokens acceptés par utilisateur.
+ * <p>
+ * Changer le rôle ou le mot de passe incrémente {@code User.tokenVersion} (champ en lecture seule pour le mapping :
+ * un {@code save} concurrent ne peut pas le faire reculer) : les tokens émis avant sont refusés.
+ * Un compte désactivé ou supprimé refuse tous ses tokens ; les suppressions sont conservées dans
+ * {@code deleted_users} jusqu'à l'expiration du dernier token possible.
+ * <p>
+ * Seuls les utilisateurs dont la version a changé depuis moins de {@code jwt.expiration}
+ * ({@code tokenVersionChangedAt}, indexé), les comptes désactivés (index partiel) et les suppressions récentes
+ * sont gardés en mémoire : au-delà, les tokens antérieurs ont expiré d'eux-mêmes. Ces ensembles sont relus
+ * périodiquement pour propager les changements faits sur un autre nœud ou avant un redémarrage.
+ * La vérification d'un token ne fait donc aucun accès à la base.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionRegistry {
+
+    private static final long REVOKED = Long.MAX_VALUE;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    private volatile Map<String, Long> minVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Versions incrémentées avant l'horodatage des changements : datées du démarrage, elles expirent après
+     * {@code jwt.expiration} comme les autres.
+     */
+    @PostConstruct
+    public void init() {
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("tokenVersion").gt(0).and("tokenVersionChangedAt").exists(false)),
+                new Update().set("tokenVersionChangedAt", new Date()),
+                User.class);
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.version-refresh-ms:30000}")
+    public void refresh() {
+        Date cutoff = new Date(System.currentTimeMillis() - jwtExpiration);
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("tokenVersionChangedAt").gt(cutoff),
+                Criteria.where("enabled").is(false)));
+        query.fields().include("tokenVersion", "enabled");
+
+        Map<String, Long> versions = new ConcurrentHashMap<>();
+        for (Document document : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(User.class))) {
+            Number tokenVersion = (Number) document.get("tokenVersion");
+            long version = Boolean.FALSE.equals(document.getBoolean("enabled"))
+                    ? REVOKED : tokenVersion == null ? 0 : tokenVersion.longValue();
+            versions.put(document.get("_id").toString(), version);
+        }
+        Query tombstones = new Query(Criteria.where("expiresAt").gt(new Date()));
+        tombstones.fields().include("_id");
+        mongoTemplate.find(tombstones, DeletedUser.class).forEach(deleted -> versions.put(deleted.getId(), REVOKED));
+        minVersions = versions;
+        log.debug("{} version(s) de token chargée(s)", versions.size());
+    }
+
+    public boolean isCurrent(String userId, long tokenVersion) {
+        return tokenVersion >= minVersions.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * Invalide tous les tokens émis jusqu'ici pour l'utilisateur.
+     *
+     * @return la nouvelle version, à placer dans les prochains tokens
+     */
+    public long bump(String userId) {
+        Query query = new Query(Criteria.where("_id").is(MongoIds.toObjectId(userId)));
+        query.fields().include("tokenVersion", "enabled");
+        User user = mongoTemplate.findAndModify(
+                query,
+                new Update().inc("tokenVersion", 1).set("tokenVersionChangedAt", new Date()),
+                FindAndModifyOptions.options().returnNew(true),
+                User.class);
+        if (user == null) {
+            return 0;
+        }
+        long version = user.isEnabled() ? user.getTokenVersion() : REVOKED;
+        minVersions.put(userId, version);
+        return version;
+    }
+
+    /**
+     * Refuse définitivement les tokens d'un compte supprimé, sur tous les nœuds.
+     * L'entrée expire avec le dernier token qui a pu être émis.
+     */
+    public void revoke(String userId) {
+        Date now = new Date();
+        mongoTemplate.upsert(
+                new Query(Criteria.where("_id").is(userId)),
+                new Update().set("deletedAt", now).set("expiresAt", new Date(now.getTime() + jwtExpiration)),
+                DeletedUser.class);
+        minVersions.put(userId, REVOKED);
+    }
+}
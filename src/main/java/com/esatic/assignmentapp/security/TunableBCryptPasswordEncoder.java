@@ -0,0 +1,91 @@
+package com.esatic.assignmentapp.security;
+
+import lombok.Getter;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt à coût fixé : un hachage de coût plus faible est signalé par {@link #upgradeEncoding(String)}
+ * et réencodé à la prochaine connexion. Un coût plus élevé est conservé : avec un coût calibré par nœud,
+ * des machines différentes ne se renvoient pas le réencodage des mêmes comptes à chaque connexion.
+ * <p>
+ * {@link #calibrate(long, int, int)} choisit le coût le plus élevé dont un hachage reste sous le temps cible
+ * sur la machine courante.
+ */
+public class TunableBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    // Coût mesuré pour extrapoler : assez rapide pour le démarrage, assez long pour être mesurable
+    private static final int PROBE_STRENGTH = 8;
+    private static final int PROBE_RUNS = 3;
+
+    private final BCryptPasswordEncoder delegate;
+
+    @Getter
+    private final int strength;
+
+    public TunableBCryptPasswordEncoder(int strength) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        // Le coût est lu dans le hachage : les anciens hachages restent vérifiables
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && cost < strength;
+    }
+
+    /**
+     * Coût d'un hachage BCrypt, ou -1 s'il n'est pas reconnu.
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Coût le plus élevé dont le temps estimé reste sous {@code targetMillis}, borné à [{@code min}, {@code max}].
+     * Chaque incrément double le temps de hachage : un seul coût est mesuré puis extrapolé.
+     */
+    public static int calibrate(long targetMillis, int min, int max) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(PROBE_STRENGTH);
+        probe.encode("calibration"); // échauffement
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_RUNS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double estimateNanos = best;
+        int strength = PROBE_STRENGTH;
+        double targetNanos = targetMillis * 1_000_000d;
+        while (strength < max && estimateNanos * 2 <= targetNanos) {
+            estimateNanos *= 2;
+            strength++;
+        }
+        while (strength > min && estimateNanos > targetNanos) {
+            estimateNanos /= 2;
+            strength--;
+        }
+        return Math.max(min, Math.min(max, strength));
+    }
+}
@@ -0,0 +1,50 @@
+package com.esatic.assignmentapp.service;
+
+import java.util.OptionalInt;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lecture des libellés d'année scolaire des classes : « 2023-2024 », « 2023/2024 » ou « 2023 ».
+ */
+public final class AcademicYears {
+
+    private static final Pattern YEAR_PATTERN = Pattern.compile("(\\d{4})");
+
+    private AcademicYears() {
+    }
+
+    /**
+     * Première année du libellé, absente si le libellé n'en contient aucune.
+     */
+    public static OptionalInt startYear(String label) {
+        if (label == null) {
+            return OptionalInt.empty();
+        }
+        Matcher matcher = YEAR_PATTERN.matcher(label);
+        return matcher.find() ? OptionalInt.of(Integer.parseInt(matcher.group(1))) : OptionalInt.empty();
+    }
+
+    /**
+     * Année de fin : la dernière du libellé, ou l'année suivante si le libellé n'en contient qu'une.
+     */
+    public static OptionalInt endYear(String label) {
+        if (label == null) {
+            return OptionalInt.empty();
+        }
+        Matcher matcher = YEAR_PATTERN.matcher(label);
+        Integer first = null;
+        Integer last = null;
+        while (matcher.find()) {
+            int value = Integer.parseInt(matcher.group(1));
+            if (first == null) {
+                first = value;
+            }
+            last = value;
+        }
+        if (first == null) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(first.equals(last) ? first + 1 : last);
+    }
+}
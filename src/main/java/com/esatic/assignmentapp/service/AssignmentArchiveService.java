@@ -0,0 +1,198 @@
+package com.esatic.assignmentapp.service;
+
+import com.esatic.assignmentapp.dto.ArchiveReportDTO;
+import com.esatic.assignmentapp.model.Assignment;
+import com.esatic.assignmentapp.model.Class;
+import com.esatic.assignmentapp.repository.ClassRepository;
+import com.esatic.assignmentapp.repository.MongoIds;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Archivage des devoirs des années académiques terminées.
+ * <p>
+ * Les devoirs sont déplacés de {@code assignments} vers {@code assignments_archive} par lots
+ * espacés d'une pause, pour que la collection « chaude » et ses index restent à la taille d'une année.
+ * Chaque lot est d'abord copié (upsert idempotent) puis supprimé : une interruption ne perd aucun devoir.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AssignmentArchiveService {
+
+    public static final String ARCHIVE_COLLECTION = "assignments_archive";
+
+
+    private final MongoTemplate mongoTemplate;
+    private final ClassRepository classRepository;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.archive.pause-ms:200}")
+    private long pauseMs;
+
+    @Value("${app.archive.academic-year-start-month:9}")
+    private int academicYearStartMonth;
+
+    @PostConstruct
+    public void initArchiveIndexes() {
+        mongoTemplate.indexOps(ARCHIVE_COLLECTION).ensureIndex(new Index().on("dateDeRendu", Sort.Direction.DESC));
+        mongoTemplate.indexOps(ARCHIVE_COLLECTION).ensureIndex(new Index().on("auteur.$id", Sort.Direction.ASC));
+        mongoTemplate.indexOps(ARCHIVE_COLLECTION).ensureIndex(new Index().on("classId.$id", Sort.Direction.ASC));
+    }
+
+    @Scheduled(cron = "${app.archive.cron:-}")
+    public void scheduledArchive() {
+        archiveClosedYears();
+    }
+
+    /**
+     * Déplace vers l'archive tous les devoirs des classes d'années terminées,
+     * ainsi que les devoirs sans classe dont la date de rendu précède l'année en cours.
+     */
+    public ArchiveReportDTO archiveClosedYears() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Un archivage est déjà en cours");
+        }
+        long start = System.currentTimeMillis();
+        try {
+            LocalDate yearStart = currentAcademicYearStart();
+            List<Class> closedClasses = classRepository.findAll().stream()
+                    .filter(classEntity -> isClosed(classEntity.getYear(), yearStart))
+                    .toList();
+
+            List<Object> closedClassIds = closedClasses.stream()
+                    .map(classEntity -> MongoIds.toObjectId(classEntity.getId()))
+                    .toList();
+            Date cutoff = Date.from(yearStart.atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+            Document filter = new Criteria().orOperator(
+                    Criteria.where("classId.$id").in(closedClassIds),
+                    new Criteria().andOperator(
+                            Criteria.where("classId").is(null),
+                            Criteria.where("dateDeRendu").lt(cutoff))
+            ).getCriteriaObject();
+
+            MongoCollection<Document> hot = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Assignment.class));
+            MongoCollection<Document> archive = mongoTemplate.getCollection(ARCHIVE_COLLECTION);
+
+            long moved = 0;
+            int batches = 0;
+            List<Document> batch;
+            do {
+                batch = hot.find(filter).limit(batchSize).into(new ArrayList<>());
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                List<WriteModel<Document>> copies = new ArrayList<>(batch.size());
+                List<Object> ids = new ArrayList<>(batch.size());
+                for (Document document : batch) {
+                    copies.add(new ReplaceOneModel<>(Filters.eq("_id", document.get("_id")), document,
+                            new ReplaceOptions().upsert(true)));
+                    ids.add(document.get("_id"));
+                }
+                archive.bulkWrite(copies);
+                moved += hot.deleteMany(Filters.in("_id", ids)).getDeletedCount();
+                batches++;
+
+                pause();
+            } while (batch.size() == batchSize);
+
+            long duration = System.currentTimeMillis() - start;
+            log.info("Archivage terminé : {} devoirs déplacés en {} lots ({} ms)", moved, batches, duration);
+
+            return ArchiveReportDTO.builder()
+                    .movedCount(moved)
+                    .batches(batches)
+                    .closedYears(closedClasses.stream().map(Class::getYear).filter(Objects::nonNull).distinct().sorted().toList())
+                    .durationMs(duration)
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Pagination sur l'union des collections chaude et archive ({@code $unionWith}, MongoDB 4.4+).
+     * Le filtre doit être exprimé sur les champs bruts (ex. {@code matiere.$id}).
+     */
+    public Page<Assignment> findIncludingArchive(Criteria criteria, Pageable pageable) {
+        Document match = criteria != null ? criteria.getCriteriaObject() : new Document();
+        MongoCollection<Document> hot = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Assignment.class));
+
+        Document sort = new Document();
+        pageable.getSort().forEach(order -> sort.append(order.getProperty(), order.isAscending() ? 1 : -1));
+        sort.append("_id", 1);
+
+        List<Document> pipeline = List.of(
+                new Document("$match", match),
+                new Document("$unionWith", new Document("coll", ARCHIVE_COLLECTION)
+                        .append("pipeline", List.of(new Document("$match", match)))),
+                new Document("$sort", sort),
+                new Document("$skip", pageable.getOffset()),
+                new Document("$limit", pageable.getPageSize()));
+
+        List<Assignment> content = hot.aggregate(pipeline)
+                .map(document -> mongoTemplate.getConverter().read(Assignment.class, document))
+                .into(new ArrayList<>());
+
+        long total = hot.countDocuments(match) + mongoTemplate.getCollection(ARCHIVE_COLLECTION).countDocuments(match);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    public Optional<Assignment> findArchivedById(String id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, Assignment.class, ARCHIVE_COLLECTION));
+    }
+
+    private LocalDate currentAcademicYearStart() {
+        LocalDate today = LocalDate.now();
+        int startYear = today.getMonthValue() >= academicYearStartMonth ? today.getYear() : today.getYear() - 1;
+        return LocalDate.of(startYear, academicYearStartMonth, 1);
+    }
+
+    /**
+     * Une année « 2023-2024 » (ou « 2023 ») est terminée si elle se termine avant le début de l'année en cours.
+     */
+    private boolean isClosed(String year, LocalDate currentYearStart) {
+        OptionalInt endYear = AcademicYears.endYear(year);
+        return endYear.isPresent()
+                && !LocalDate.of(endYear.getAsInt(), academicYearStartMonth, 1).isAfter(currentYearStart);
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archivage interrompu", e);
+        }
+    }
+}
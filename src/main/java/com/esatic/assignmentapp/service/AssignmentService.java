@@ -3,16 +3,20 @@ package com.esatic.assignmentapp.service;
 import com.esatic.assignmentapp.dto.*;
 import com.esatic.assignmentapp.exception.ResourceNotFoundException;
 import com.esatic.assignmentapp.model.*;
+import com.esatic.assignmentapp.model.Class;
 import com.esatic.assignmentapp.repository.*;
+import com.esatic.assignmentapp.repository.MongoIds;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,23 +28,30 @@ public class AssignmentService {
     private final UserRepository userRepository;
     private final SubjectRepository subjectRepository;
     private final ClassRepository classRepository;
+    private final ReferenceLoader referenceLoader;
+    private final AssignmentArchiveService archiveService;
+    private final CollectionPager collectionPager;
+    private final FileService fileService;
 
     // Conversion methods
     private AssignmentResponseDTO toResponseDTO(Assignment assignment) {
+        User auteur = referenceLoader.user(assignment.getAuteur());
+        Subject matiere = referenceLoader.subject(assignment.getMatiere());
+        Class classEntity = referenceLoader.schoolClass(assignment.getClassId());
+
         return AssignmentResponseDTO.builder()
                 .id(assignment.getId())
                 .nom(assignment.getNom())
                 .dateDeRendu(assignment.getDateDeRendu())
                 .rendu(assignment.isRendu())
-                .auteurId(assignment.getAuteur() != null ? assignment.getAuteur().getId() : null)
-                .auteurName(assignment.getAuteur() != null ?
-                        assignment.getAuteur().getFirstName() + " " + assignment.getAuteur().getLastName() : null)
-                .matiereId(assignment.getMatiere() != null ? assignment.getMatiere().getId() : null)
-                .matiereName(assignment.getMatiere() != null ? assignment.getMatiere().getName() : null)
+                .auteurId(MongoIds.refId(assignment.getAuteur()))
+                .auteurName(auteur != null ? auteur.getFirstName() + " " + auteur.getLastName() : null)
+                .matiereId(MongoIds.refId(assignment.getMatiere()))
+                .matiereName(matiere != null ? matiere.getName() : null)
                 .note(assignment.getNote())
                 .remarques(assignment.getRemarques())
-                .classId(assignment.getClassId() != null ? assignment.getClassId().getId() : null)
-                .className(assignment.getClassId() != null ? assignment.getClassId().getName() : null)
+                .classId(MongoIds.refId(assignment.getClassId()))
+                .className(classEntity != null ? classEntity.getName() : null)
                 .attachments(assignment.getAttachments())
                 .createdAt(assignment.getCreatedAt())
                 .updatedAt(assignment.getUpdatedAt())
@@ -72,13 +83,17 @@ public class AssignmentService {
     }
 
     // Core service methods
-    public PaginatedResponse<AssignmentResponseDTO> getAllAssignments(int page, int limit) {
-        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "dateDeRendu"));
+    public PaginatedResponse<AssignmentResponseDTO> getAllAssignments(int page, int limit, boolean includeArchived) {
+        Pageable pageable = collectionPager.pageable(page, limit, Sort.by(Sort.Direction.DESC, "dateDeRendu"));
+        if (includeArchived) {
+            return toPaginatedResponse(archiveService.findIncludingArchive(null, pageable));
+        }
         return toPaginatedResponse(assignmentRepository.findAll(pageable));
     }
 
-    public AssignmentResponseDTO getAssignmentById(String id) {
+    public AssignmentResponseDTO getAssignmentById(String id, boolean includeArchived) {
         return assignmentRepository.findById(id)
+                .or(() -> includeArchived ? archiveService.findArchivedById(id) : Optional.empty())
                 .map(this::toResponseDTO)
                 .orElseThrow(() -> new ResourceNotFoundException("Assignment", "id", id));
     }
@@ -130,43 +145,63 @@ public class AssignmentService {
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Assignment", "id", id));
         assignmentRepository.delete(assignment);
+        if (assignment.getAttachments() != null) {
+            fileService.releaseFiles(assignment.getAttachments());
+        }
     }
 
     // Filter methods
-    public PaginatedResponse<AssignmentResponseDTO> getSubmittedAssignments(int page, int limit) {
-        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "dateDeRendu"));
+    public PaginatedResponse<AssignmentResponseDTO> getSubmittedAssignments(int page, int limit, boolean includeArchived) {
+        Pageable pageable = collectionPager.pageable(page, limit, Sort.by(Sort.Direction.DESC, "dateDeRendu"));
+        if (includeArchived) {
+            return toPaginatedResponse(archiveService.findIncludingArchive(Criteria.where("rendu").is(true), pageable));
+        }
         return toPaginatedResponse(assignmentRepository.findByRendu(true, pageable));
     }
 
-    public PaginatedResponse<AssignmentResponseDTO> getPendingAssignments(int page, int limit) {
-        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.ASC, "dateDeRendu"));
+    public PaginatedResponse<AssignmentResponseDTO> getPendingAssignments(int page, int limit, boolean includeArchived) {
+        Pageable pageable = collectionPager.pageable(page, limit, Sort.by(Sort.Direction.ASC, "dateDeRendu"));
+        if (includeArchived) {
+            return toPaginatedResponse(archiveService.findIncludingArchive(Criteria.where("rendu").is(false), pageable));
+        }
         return toPaginatedResponse(assignmentRepository.findByRendu(false, pageable));
     }
 
-    public PaginatedResponse<AssignmentResponseDTO> getAssignmentsBySubject(String subjectId, int page, int limit) {
-        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "dateDeRendu"));
+    public PaginatedResponse<AssignmentResponseDTO> getAssignmentsBySubject(String subjectId, int page, int limit, boolean includeArchived) {
+        Pageable pageable = collectionPager.pageable(page, limit, Sort.by(Sort.Direction.DESC, "dateDeRendu"));
+        if (includeArchived) {
+            return toPaginatedResponse(archiveService.findIncludingArchive(refCriteria("matiere", subjectId), pageable));
+        }
         return toPaginatedResponse(assignmentRepository.findByMatiereId(subjectId, pageable));
     }
 
-    public PaginatedResponse<AssignmentResponseDTO> getAssignmentsByStudent(String studentId, int page, int limit) {
-        Pageable pageable = PageRequest.of(page - 1, limit, Sort.by(Sort.Direction.DESC, "dateDeRendu"));
+    public PaginatedResponse<AssignmentResponseDTO> getAssignmentsByStudent(String studentId, int page, int limit, boolean includeArchived) {
+        Pageable pageable = collectionPager.pageable(page, limit, Sort.by(Sort.Direction.DESC, "dateDeRendu"));
+        if (includeArchived) {
+            return toPaginatedResponse(archiveService.findIncludingArchive(refCriteria("auteur", studentId), pageable));
+        }
         return toPaginatedResponse(assignmentRepository.findByAuteurId(studentId, pageable));
     }
 
-    public PaginatedResponse<AssignmentResponseDTO> getAssignmentsByTeacher(String teacherId, int page, int limit) {
-        User teacher = userRepository.findById(teacherId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", teacherId));
-
-        List<String> subjectIds = teacher.getTeachingSubjects().stream()
-                .map(Subject::getId)
-                .collect(Collectors.toList());
+    public PaginatedResponse<AssignmentResponseDTO> getAssignmentsByTeacher(String teacherId, int page, int limit, boolean includeArchived) {
+        if (!userRepository.existsById(teacherId)) {
+            throw new ResourceNotFoundException("User", "id", teacherId);
+        }
+        List<String> subjectIds = userRepository.findTeachingSubjectIds(teacherId);
 
-        Pageable pageable = PageRequest.of(page - 1, limit);
+        Pageable pageable = collectionPager.pageable(page, limit, Sort.unsorted());
+        if (includeArchived) {
+            Criteria criteria = Criteria.where("matiere.$id").in(subjectIds.stream().map(MongoIds::toObjectId).toList());
+            return toPaginatedResponse(archiveService.findIncludingArchive(criteria, pageable));
+        }
         return toPaginatedResponse(assignmentRepository.findByMatiereIdIn(subjectIds, pageable));
     }
 
-    public PaginatedResponse<AssignmentResponseDTO> getAssignmentsByClass(String classId, int page, int limit) {
-        Pageable pageable = PageRequest.of(page - 1, limit);
+    public PaginatedResponse<AssignmentResponseDTO> getAssignmentsByClass(String classId, int page, int limit, boolean includeArchived) {
+        Pageable pageable = collectionPager.pageable(page, limit, Sort.unsorted());
+        if (includeArchived) {
+            return toPaginatedResponse(archiveService.findIncludingArchive(refCriteria("classId", classId), pageable));
+        }
         return toPaginatedResponse(assignmentRepository.findByClassId(classId, pageable));
     }
 
@@ -179,8 +214,8 @@ public class AssignmentService {
         User student = userRepository.findById(submitDTO.getStudentId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", submitDTO.getStudentId()));
 
-        if (assignment.getClassId() == null || student.getClassId() == null ||
-                !assignment.getClassId().getId().equals(student.getClassId().getId())) {
+        String classId = MongoIds.refId(assignment.getClassId());
+        if (classId == null || !classId.equals(MongoIds.refId(student.getClassId()))) {
             throw new IllegalArgumentException("Student not authorized to submit this assignment");
         }
 
@@ -203,8 +238,19 @@ public class AssignmentService {
         return toResponseDTO(assignmentRepository.save(assignment));
     }
 
-    // Helper method
+    // Helper methods
+    private Criteria refCriteria(String field, String id) {
+        return Criteria.where(field + ".$id").is(MongoIds.toObjectId(id));
+    }
+
     private PaginatedResponse<AssignmentResponseDTO> toPaginatedResponse(Page<Assignment> page) {
+        // Regrouper les références de la page : une requête par collection
+        page.getContent().forEach(assignment -> {
+            referenceLoader.enqueue(assignment.getAuteur());
+            referenceLoader.enqueue(assignment.getMatiere());
+            referenceLoader.enqueue(assignment.getClassId());
+        });
+
         List<AssignmentResponseDTO> dtos = page.getContent().stream()
                 .map(this::toResponseDTO)
                 .collect(Collectors.toList());
@@ -9,10 +9,12 @@ import com.esatic.assignmentapp.security.JwtService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -22,16 +24,9 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserService userService;
 
     public AuthenticationResponse register(RegisterRequest request) {
-        // Vérifier si le nom d'utilisateur ou l'email existe déjà
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new IllegalArgumentException("Ce nom d'utilisateur est déjà pris");
-        }
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Cette adresse email est déjà utilisée");
-        }
-
         // Créer un nouvel utilisateur
         var user = User.builder()
                 .firstName(request.getFirstName())
@@ -45,38 +40,51 @@ public class AuthenticationService {
                 .updatedAt(new Date())
                 .build();
 
-        var savedUser = userRepository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-
-        // Ne pas renvoyer le mot de passe dans la réponse
-        savedUser.setPassword(null);
+        // Un seul insert : les doublons de nom d'utilisateur ou d'email sont rejetés par les index uniques
+        var savedUser = userService.createUser(user);
+        var jwtToken = issueToken(savedUser);
 
         return AuthenticationResponse.builder()
                 .token(jwtToken)
-                .user(savedUser)
+                .user(userService.toResponseDTO(savedUser))
                 .build();
     }
 
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
         // Authentifier l'utilisateur
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getUsername(),
                         request.getPassword()
                 )
         );
 
-        // Utilisateur authentifié avec succès, générer un token
-        var user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow();
-        var jwtToken = jwtService.generateToken(user);
-
-        // Ne pas renvoyer le mot de passe dans la réponse
-        user.setPassword(null);
+        // L'utilisateur chargé pendant l'authentification est réutilisé : pas de seconde lecture
+        var user = (User) authentication.getPrincipal();
+        var jwtToken = issueToken(user);
 
         return AuthenticationResponse.builder()
                 .token(jwtToken)
-                .user(user)
+                .user(userService.toResponseDTO(user))
                 .build();
     }
+
+    /**
+     * Change le mot de passe : les tokens existants sont refusés, l'appelant reçoit un nouveau token.
+     */
+    public AuthenticationResponse changePassword(String userId, String currentPassword, String newPassword) {
+        User user = userService.changePassword(userId, currentPassword, newPassword);
+        return AuthenticationResponse.builder()
+                .token(issueToken(user))
+                .user(userService.toResponseDTO(user))
+                .build();
+    }
+
+    // Les identifiants des matières sont lus dans les DBRef, sans charger les matières
+    private String issueToken(User user) {
+        List<String> subjectIds = "TEACHER".equalsIgnoreCase(user.getRole())
+                ? userRepository.findTeachingSubjectIds(user.getId())
+                : List.of();
+        return jwtService.generateToken(user, subjectIds);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,339 @@
+package com.esatic.assignmentapp.service;
+
+import com.esatic.assignmentapp.exception.ServiceOverloadedException;
+import com.esatic.assignmentapp.model.Blob;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stockage adressé par contenu : un seul exemplaire par contenu sous la clé {@code <sha256>} du {@link StorageBackend},
+ * avec comptage des références dans la collection {@code blobs}.
+ * <p>
+ * La suppression et le rattachement s'excluent, y compris entre nœuds : la dernière libération marque le document
+ * ({@code deletingSince}) avant de supprimer les objets et ne le retire qu'ensuite ; un upload identique attend
+ * ce retrait (son upsert se heurte à l'identifiant existant) puis recrée le document et réécrit le contenu.
+ * Le premier référent réécrit toujours le contenu, sans se fier à un objet resté en place.
+ * <p>
+ * Un nouveau contenu d'un type compressible ({@code app.uploads.compression.types}) est stocké en gzip
+ * ({@code <sha256>.gz}) si le gain dépasse le seuil {@code max-ratio}. L'empreinte reste celle du contenu d'origine.
+ * Le type déclaré par le client ne suffit pas : les premiers octets du fichier sont aussi examinés, si bien qu'un
+ * texte envoyé en {@code application/octet-stream} est compressé.
+ */
+@Service
+@Slf4j
+public class BlobStore {
+
+    public static final String GZIP = "gzip";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SNIFF_BYTES = 8 * 1024;
+    private static final long DELETE_POLL_MS = 50;
+
+    private final StorageBackend storage;
+    private final MongoTemplate mongoTemplate;
+    private final Counter savedOnWrite;
+    private final AtomicLong logicalBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    @Value("${app.uploads.compression.enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${app.uploads.compression.types:text/*,application/json,application/xml}")
+    private List<String> compressibleTypes;
+
+    @Value("${app.uploads.compression.max-ratio:0.9}")
+    private double maxRatio;
+
+    @Value("${app.storage.temp-dir:uploads/blobs/tmp}")
+    private String tempDir;
+
+    @Value("${app.storage.delete-wait-ms:10000}")
+    private long deleteWaitMs;
+
+    @Value("${app.storage.stale-delete-ms:600000}")
+    private long staleDeleteMs;
+
+    public BlobStore(StorageBackend storage, MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.storage = storage;
+        this.mongoTemplate = mongoTemplate;
+        this.savedOnWrite = Counter.builder("uploads.compression.saved")
+                .description("Octets économisés par la compression des nouveaux contenus")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("uploads.storage.logical", logicalBytes, AtomicLong::get)
+                .description("Taille des contenus stockés, avant compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("uploads.storage.physical", storedBytes, AtomicLong::get)
+                .description("Place occupée sur disque par les contenus")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("uploads.storage.saved", this, store -> store.logicalBytes.get() - store.storedBytes.get())
+                .description("Place économisée par la compression")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fichier temporaire local ; avec le stockage local par défaut, sur le même système de fichiers (renommage atomique).
+     */
+    public Path newTempFile() throws IOException {
+        Path tempRoot = Paths.get(tempDir);
+        Files.createDirectories(tempRoot);
+        return tempRoot.resolve(UUID.randomUUID() + ".part");
+    }
+
+    /**
+     * Ajoute une référence au contenu de {@code source} ; le fichier est stocké (compressé si utile)
+     * s'il s'agit d'un nouveau contenu, supprimé sinon.
+     */
+    public void commit(Path source, String sha256, long size, String mediaType) throws IOException {
+        Blob blob = reference(sha256, size);
+        boolean created = blob.getRefCount() == 1;
+        // Un objet trouvé par le premier référent peut être le reste d'une suppression interrompue : on réécrit
+        if (!created && exists(sha256)) {
+            Files.deleteIfExists(source);
+            return;
+        }
+
+        Path compressed = isCompressible(mediaType) || compressionEnabled && isCompressible(sniff(source))
+                ? compress(source, size) : null;
+        long storedSize = compressed != null ? Files.size(compressed) : size;
+        if (compressed != null) {
+            storage.importFile(gzipKey(sha256), compressed);
+            Files.deleteIfExists(source);
+            savedOnWrite.increment(size - storedSize);
+        } else {
+            storage.importFile(sha256, source);
+        }
+        mongoTemplate.updateFirst(byId(sha256),
+                new Update().set("storedSize", storedSize).set("encoding", compressed != null ? GZIP : null),
+                Blob.class);
+        if (created) {
+            logicalBytes.addAndGet(size);
+            storedBytes.addAndGet(storedSize);
+        }
+    }
+
+    /**
+     * Retire une référence ; le contenu est supprimé avec la dernière.
+     *
+     * @return {@code true} si le contenu a été supprimé
+     */
+    public boolean release(String sha256) throws IOException {
+        Blob blob = mongoTemplate.findAndModify(
+                live(sha256),
+                new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true),
+                Blob.class);
+        if (blob == null || blob.getRefCount() > 0) {
+            return false;
+        }
+        // Un autre nœud a pu s'y rattacher depuis la décrémentation : on ne marque que si le compteur est resté à zéro
+        boolean marked = mongoTemplate.updateFirst(
+                live(sha256).addCriteria(Criteria.where("refCount").lte(0)),
+                new Update().set("deletingSince", new Date()),
+                Blob.class).getModifiedCount() > 0;
+        if (!marked) {
+            return false;
+        }
+        try {
+            storage.deleteByPrefix(sha256 + "-");
+            boolean deleted = storage.delete(sha256);
+            return storage.delete(gzipKey(sha256)) || deleted;
+        } finally {
+            // Retiré même après un échec : le prochain upload réécrira le contenu
+            mongoTemplate.remove(Query.query(Criteria.where("_id").is(sha256).and("deletingSince").exists(true)), Blob.class);
+            logicalBytes.addAndGet(-blob.getSize());
+            storedBytes.addAndGet(-(blob.getStoredSize() != null ? blob.getStoredSize() : blob.getSize()));
+        }
+    }
+
+    /**
+     * Contenu tel que stocké ({@code encoding} vaut {@link #GZIP} s'il est compressé), ou {@code null} s'il est absent.
+     */
+    public StoredObject locate(String sha256) throws IOException {
+        OptionalLong raw = storage.size(sha256);
+        if (raw.isPresent()) {
+            return new StoredObject(storage, sha256, raw.getAsLong(), null);
+        }
+        OptionalLong gzip = storage.size(gzipKey(sha256));
+        return gzip.isPresent() ? new StoredObject(storage, gzipKey(sha256), gzip.getAsLong(), GZIP) : null;
+    }
+
+    public boolean exists(String sha256) throws IOException {
+        return locate(sha256) != null;
+    }
+
+    /**
+     * Contenu d'origine, décompressé à la lecture si nécessaire.
+     */
+    public InputStream open(String sha256) throws IOException {
+        StoredObject object = locate(sha256);
+        if (object == null) {
+            throw new NoSuchFileException(sha256);
+        }
+        InputStream in = object.open();
+        return GZIP.equals(object.encoding()) ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    /**
+     * Variante dérivée du contenu (miniature...), rangée à côté du blob et supprimée avec lui ; {@code null} si absente.
+     */
+    public StoredObject locateVariant(String sha256, int size, String extension) throws IOException {
+        String key = variantKey(sha256, size, extension);
+        OptionalLong length = storage.size(key);
+        return length.isPresent() ? new StoredObject(storage, key, length.getAsLong(), null) : null;
+    }
+
+    /**
+     * Enregistre une variante générée dans le fichier local {@code source} (consommé).
+     */
+    public StoredObject storeVariant(String sha256, int size, String extension, Path source) throws IOException {
+        String key = variantKey(sha256, size, extension);
+        long length = Files.size(source);
+        storage.importFile(key, source);
+        return new StoredObject(storage, key, length, null);
+    }
+
+    /**
+     * Totaux recalculés depuis la collection, les compteurs en mémoire ne couvrant que ce nœud depuis son démarrage.
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.compression.stats-ms:300000}")
+    public void refreshStorageStats() {
+        Document totals = mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.group()
+                                .sum("size").as("logical")
+                                .sum(ConditionalOperators.ifNull("storedSize").thenValueOf("size")).as("physical")),
+                Blob.class, Document.class).getUniqueMappedResult();
+        logicalBytes.set(totals == null ? 0 : ((Number) totals.get("logical")).longValue());
+        storedBytes.set(totals == null ? 0 : ((Number) totals.get("physical")).longValue());
+    }
+
+    private boolean isCompressible(String mediaType) {
+        if (!compressionEnabled || mediaType == null) {
+            return false;
+        }
+        String type = mediaType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        return compressibleTypes.stream().anyMatch(pattern -> pattern.endsWith("/*")
+                ? type.startsWith(pattern.substring(0, pattern.length() - 1))
+                : type.equals(pattern));
+    }
+
+    /**
+     * Type deviné d'après les premiers octets : signature connue, sinon {@code text/plain} pour un contenu
+     * sans octet nul ni caractère de contrôle (texte ASCII ou UTF-8), {@code null} pour un binaire inconnu.
+     */
+    private static String sniff(Path source) throws IOException {
+        byte[] head;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+            String guessed = URLConnection.guessContentTypeFromStream(in);
+            if (guessed != null) {
+                return guessed;
+            }
+            head = in.readNBytes(SNIFF_BYTES);
+        }
+        if (head.length == 0) {
+            return null;
+        }
+        for (byte b : head) {
+            if (b >= 0 && b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x1B) {
+                return null;
+            }
+        }
+        return "text/plain";
+    }
+
+    // Compressé dans un fichier temporaire ; abandonné si le gain n'atteint pas le seuil
+    private Path compress(Path source, long size) throws IOException {
+        Path compressed = newTempFile();
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), BUFFER_SIZE)) {
+            in.transferTo(out);
+        }
+        if (Files.size(compressed) > size * maxRatio) {
+            Files.delete(compressed);
+            return null;
+        }
+        return compressed;
+    }
+
+    private static String gzipKey(String sha256) {
+        return sha256 + ".gz";
+    }
+
+    private static String variantKey(String sha256, int size, String extension) {
+        return sha256 + "-" + size + "." + extension;
+    }
+
+    /**
+     * Incrémente le compteur, en créant le document si besoin. Tant qu'une suppression est en cours,
+     * l'upsert se heurte au document marqué : on attend son retrait, au plus {@code delete-wait-ms}.
+     * Une suppression marquée depuis plus de {@code stale-delete-ms} (nœud arrêté en cours de route) est abandonnée.
+     */
+    private Blob reference(String sha256, long size) {
+        long deadline = System.currentTimeMillis() + deleteWaitMs;
+        while (true) {
+            try {
+                return mongoTemplate.findAndModify(
+                        live(sha256),
+                        new Update().inc("refCount", 1).setOnInsert("size", size).setOnInsert("createdAt", new Date()),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        Blob.class);
+            } catch (DuplicateKeyException e) {
+                mongoTemplate.remove(Query.query(Criteria.where("_id").is(sha256)
+                        .and("deletingSince").lt(new Date(System.currentTimeMillis() - staleDeleteMs))), Blob.class);
+                if (System.currentTimeMillis() > deadline) {
+                    throw new ServiceOverloadedException("Contenu identique en cours de suppression, réessayez", 1);
+                }
+                try {
+                    Thread.sleep(DELETE_POLL_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new ServiceOverloadedException("Upload interrompu", 1);
+                }
+            }
+        }
+    }
+
+    private static Query byId(String sha256) {
+        return Query.query(Criteria.where("_id").is(sha256));
+    }
+
+    // Document non marqué pour suppression
+    private static Query live(String sha256) {
+        return Query.query(Criteria.where("_id").is(sha256).and("deletingSince").exists(false));
+    }
+}
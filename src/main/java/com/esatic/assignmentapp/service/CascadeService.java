@@ -0,0 +1,174 @@
+package com.esatic.assignmentapp.service;
+
+import com.esatic.assignmentapp.model.Assignment;
+import com.esatic.assignmentapp.model.Class;
+import com.esatic.assignmentapp.model.Subject;
+import com.esatic.assignmentapp.model.Teacher;
+import com.esatic.assignmentapp.model.User;
+import com.esatic.assignmentapp.repository.MongoIds;
+import com.mongodb.DBRef;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Suppressions en cascade par opérations groupées ({@code updateMany} / {@code deleteMany}).
+ * <p>
+ * La suppression du document racine et le nettoyage des références s'exécutent dans une transaction
+ * Mongo lorsqu'un {@link MongoTransactionManager} est configuré ({@code app.mongo.transactions.enabled}).
+ * Au-delà de {@code app.cascade.async-threshold} documents impactés, le nettoyage des références
+ * est confié à une tâche de fond et la méthode renvoie {@code true}.
+ * Les fichiers des documents supprimés sont libérés une fois le nettoyage terminé.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CascadeService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectProvider<MongoTransactionManager> transactionManager;
+    private final FileService fileService;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cascade-delete");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.cascade.async-threshold:10000}")
+    private long asyncThreshold;
+
+    /**
+     * Supprime une classe : les étudiants sont détachés et les devoirs perdent leur référence de classe.
+     */
+    public boolean deleteClass(String classId) {
+        Document byClass = new Document("classId.$id", MongoIds.toObjectId(classId));
+        List<Runnable> cleanup = List.of(
+                () -> unset(User.class, byClass, "classId"),
+                () -> unset(Assignment.class, byClass, "classId"),
+                () -> unsetArchived(byClass, "classId"));
+        return run(Class.class, classId, count(User.class, byClass), cleanup, () -> { });
+    }
+
+    /**
+     * Supprime une matière : elle est retirée des enseignants et des devoirs.
+     */
+    public boolean deleteSubject(String subjectId) {
+        Object id = MongoIds.toObjectId(subjectId);
+        DBRef subjectRef = new DBRef(mongoTemplate.getCollectionName(Subject.class), id);
+        Document bySubject = new Document("matiere.$id", id);
+        List<Runnable> cleanup = List.of(
+                () -> mongoTemplate.updateMulti(new BasicQuery(new Document("teachingSubjects.$id", id)),
+                        new Update().pull("teachingSubjects", subjectRef), mongoTemplate.getCollectionName(User.class)),
+                () -> mongoTemplate.updateMulti(new BasicQuery(new Document("subjects", subjectId)),
+                        new Update().pull("subjects", subjectId), mongoTemplate.getCollectionName(Teacher.class)),
+                () -> unset(Assignment.class, bySubject, "matiere"),
+                () -> unsetArchived(bySubject, "matiere"));
+        return run(Subject.class, subjectId, count(Assignment.class, bySubject), cleanup, () -> { });
+    }
+
+    /**
+     * Supprime un utilisateur et les devoirs dont il est l'auteur, puis libère sa photo et leurs pièces jointes.
+     */
+    public boolean deleteUser(String userId) {
+        Document byAuthor = new Document("auteur.$id", MongoIds.toObjectId(userId));
+        String assignments = mongoTemplate.getCollectionName(Assignment.class);
+        // URL relevées avant la suppression des documents qui les portent
+        List<String> files = new ArrayList<>();
+        Document user = mongoTemplate.findById(MongoIds.toObjectId(userId), Document.class, mongoTemplate.getCollectionName(User.class));
+        if (user != null && user.getString("photoUrl") != null) {
+            files.add(user.getString("photoUrl"));
+        }
+        List<Runnable> cleanup = List.of(
+                () -> files.addAll(attachments(assignments, byAuthor)),
+                () -> files.addAll(attachments(AssignmentArchiveService.ARCHIVE_COLLECTION, byAuthor)),
+                () -> mongoTemplate.remove(new BasicQuery(byAuthor), assignments),
+                () -> mongoTemplate.remove(new BasicQuery(byAuthor), AssignmentArchiveService.ARCHIVE_COLLECTION));
+        return run(User.class, userId, count(Assignment.class, byAuthor), cleanup, () -> fileService.releaseFiles(files));
+    }
+
+    private boolean run(java.lang.Class<?> rootType, String rootId, long fanOut, List<Runnable> cleanup,
+                        Runnable releaseFiles) {
+        Runnable deleteRoot = () -> mongoTemplate.remove(
+                new BasicQuery(new Document("_id", MongoIds.toObjectId(rootId))),
+                mongoTemplate.getCollectionName(rootType));
+
+        if (fanOut > asyncThreshold) {
+            // Le document racine disparaît immédiatement ; les références pendantes sont nettoyées en arrière-plan
+            deleteRoot.run();
+            executor.submit(() -> {
+                long start = System.currentTimeMillis();
+                try {
+                    cleanup.forEach(Runnable::run);
+                    releaseFiles.run();
+                    log.info("Cascade {} {} terminée en arrière-plan ({} documents, {} ms)",
+                            rootType.getSimpleName(), rootId, fanOut, System.currentTimeMillis() - start);
+                } catch (Exception e) {
+                    log.error("Échec de la cascade {} {}", rootType.getSimpleName(), rootId, e);
+                }
+            });
+            return true;
+        }
+
+        inTransaction(() -> {
+            deleteRoot.run();
+            cleanup.forEach(Runnable::run);
+        });
+        // Hors transaction : les fichiers ne sont libérés qu'une fois la suppression validée
+        releaseFiles.run();
+        return false;
+    }
+
+    private void inTransaction(Runnable work) {
+        MongoTransactionManager manager = transactionManager.getIfAvailable();
+        if (manager == null) {
+            work.run();
+            return;
+        }
+        new TransactionTemplate(manager).executeWithoutResult(status -> work.run());
+    }
+
+    private long count(java.lang.Class<?> type, Document filter) {
+        return mongoTemplate.count(new BasicQuery(filter), mongoTemplate.getCollectionName(type));
+    }
+
+    // Pièces jointes des devoirs correspondant au filtre, seul champ lu
+    private List<String> attachments(String collection, Document filter) {
+        BasicQuery query = new BasicQuery(filter);
+        query.fields().include("attachments");
+        List<String> urls = new ArrayList<>();
+        for (Document document : mongoTemplate.find(query, Document.class, collection)) {
+            List<String> attachments = document.getList("attachments", String.class);
+            if (attachments != null) {
+                urls.addAll(attachments);
+            }
+        }
+        return urls;
+    }
+
+    private void unset(java.lang.Class<?> type, Document filter, String field) {
+        mongoTemplate.updateMulti(new BasicQuery(filter), new Update().unset(field), mongoTemplate.getCollectionName(type));
+    }
+
+    private void unsetArchived(Document filter, String field) {
+        mongoTemplate.updateMulti(new BasicQuery(filter), new Update().unset(field), AssignmentArchiveService.ARCHIVE_COLLECTION);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
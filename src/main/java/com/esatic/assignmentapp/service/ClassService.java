@@ -1,38 +1,61 @@
 package com.esatic.assignmentapp.service;
 
+import com.esatic.assignmentapp.dto.BulkEnrollmentRequest;
+import com.esatic.assignmentapp.dto.BulkOperationReportDTO;
 import com.esatic.assignmentapp.dto.ClassDTO;
+import com.esatic.assignmentapp.dto.ClassMembershipDTO;
 import com.esatic.assignmentapp.dto.ClassResponseDTO;
+import com.esatic.assignmentapp.dto.PaginatedResponse;
+import com.esatic.assignmentapp.dto.PromotionRequest;
 import com.esatic.assignmentapp.dto.StudentInfoDTO;
 import com.esatic.assignmentapp.exception.ResourceNotFoundException;
 import com.esatic.assignmentapp.model.Class;
 import com.esatic.assignmentapp.model.User;
 import com.esatic.assignmentapp.repository.ClassRepository;
+import com.esatic.assignmentapp.repository.MongoIds;
 import com.esatic.assignmentapp.repository.UserRepository;
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ClassService {
 
+    private static final int MAX_ROSTER_PAGE_SIZE = 100;
+
     private final ClassRepository classRepository;
     private final UserRepository userRepository;
+    private final ReferenceLoader referenceLoader;
+    private final CascadeService cascadeService;
+    private final CollectionPager collectionPager;
+
+    @Value("${app.enrollment.batch-size:1000}")
+    private int enrollmentBatchSize;
 
     // Conversion methods
     private ClassResponseDTO toResponseDTO(Class classEntity) {
-        List<StudentInfoDTO> students = userRepository.findByClassId(classEntity.getId())
+        List<StudentInfoDTO> students = referenceLoader.studentsByClass(List.of(classEntity.getId()))
+                .get(classEntity.getId())
                 .stream()
-                .map(user -> com.esatic.assignmentapp.dto.StudentInfoDTO.builder()
-                        .id(user.getId())
-                        .firstName(user.getFirstName())
-                        .lastName(user.getLastName())
-                        .email(user.getEmail())
-                        .build())
+                .map(this::toStudentInfo)
                 .collect(Collectors.toList());
 
         return ClassResponseDTO.builder()
@@ -40,12 +63,42 @@ public class ClassService {
                 .name(classEntity.getName())
                 .year(classEntity.getYear())
                 .description(classEntity.getDescription())
+                .studentCount(students.size())
+                .studentsUrl(studentsUrl(classEntity))
                 .students(students)
                 .createdAt(classEntity.getCreatedAt())
                 .updatedAt(classEntity.getUpdatedAt())
                 .build();
     }
 
+    private StudentInfoDTO toStudentInfo(User user) {
+        return StudentInfoDTO.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .photoUrl(user.getPhotoUrl())
+                .build();
+    }
+
+    // Résumé pour les listes : effectif sans la liste des étudiants
+    private ClassResponseDTO toSummaryDTO(Class classEntity, long studentCount) {
+        return ClassResponseDTO.builder()
+                .id(classEntity.getId())
+                .name(classEntity.getName())
+                .year(classEntity.getYear())
+                .description(classEntity.getDescription())
+                .studentCount(studentCount)
+                .studentsUrl(studentsUrl(classEntity))
+                .createdAt(classEntity.getCreatedAt())
+                .updatedAt(classEntity.getUpdatedAt())
+                .build();
+    }
+
+    private String studentsUrl(Class classEntity) {
+        return "/api/classes/" + classEntity.getId() + "/students";
+    }
+
     private Class fromDTO(ClassDTO dto) {
         return Class.builder()
                 .name(dto.getName())
@@ -57,10 +110,20 @@ public class ClassService {
     }
 
     // Service methods
-    public List<ClassResponseDTO> getAllClasses() {
-        return classRepository.findAll()
-                .stream()
-                .map(this::toResponseDTO)
+    public PaginatedResponse<ClassResponseDTO> getAllClasses(int page, int limit, String after) {
+        return collectionPager.page(Class.class, null, Sort.by(Sort.Direction.DESC, "year").and(Sort.by("name")),
+                page, limit, after, this::toSummaryDTOs);
+    }
+
+    public void exportClasses(OutputStream out) {
+        collectionPager.streamNdjson(Class.class, null, this::toSummaryDTOs, out);
+    }
+
+    private List<ClassResponseDTO> toSummaryDTOs(List<Class> classes) {
+        // Effectifs des classes du lot en une seule agrégation, sans charger les étudiants
+        Map<String, Long> counts = userRepository.countStudentsByClass(classes.stream().map(Class::getId).toList());
+        return classes.stream()
+                .map(classEntity -> toSummaryDTO(classEntity, counts.getOrDefault(classEntity.getId(), 0L)))
                 .collect(Collectors.toList());
     }
 
@@ -90,22 +153,46 @@ public class ClassService {
         return toResponseDTO(classRepository.save(existingClass));
     }
 
-    @Transactional
-    public void deleteClass(String id) {
-        Class classToDelete = classRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Classe non trouvée avec l'ID: " + id));
+    /**
+     * @return {@code true} si le détachement des étudiants se poursuit en arrière-plan
+     */
+    public boolean deleteClass(String id) {
+        if (!classRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Classe non trouvée avec l'ID: " + id);
+        }
 
-        // Nettoyage des références
-        userRepository.findByClassId(id).forEach(user -> {
-            user.setClassId(null);
-            userRepository.save(user);
-        });
+        // Nettoyage des références en une seule opération groupée
+        return cascadeService.deleteClass(id);
+    }
+
+    /**
+     * Étudiants d'une classe, paginés par curseur et filtrés sur le début du prénom ou du nom.
+     */
+    public PaginatedResponse<StudentInfoDTO> getStudents(String classId, String after, int limit, String search) {
+        if (!classRepository.existsById(classId)) {
+            throw new ResourceNotFoundException("Classe non trouvée avec l'ID: " + classId);
+        }
+        int size = Math.max(1, Math.min(limit, MAX_ROSTER_PAGE_SIZE));
 
-        classRepository.delete(classToDelete);
+        List<User> rows = userRepository.findStudentsPage(classId, search, Cursors.decode(after), size + 1);
+        boolean hasNextPage = rows.size() > size;
+        List<StudentInfoDTO> students = rows.stream()
+                .limit(size)
+                .map(this::toStudentInfo)
+                .collect(Collectors.toList());
+
+        return PaginatedResponse.<StudentInfoDTO>builder()
+                .docs(students)
+                .totalDocs(userRepository.countStudents(classId, search))
+                .limit(size)
+                .hasPrevPage(after != null && !after.isBlank())
+                .hasNextPage(hasNextPage)
+                .nextCursor(hasNextPage ? Cursors.encode(students.get(students.size() - 1).getId()) : null)
+                .build();
     }
 
     @Transactional
-    public ClassResponseDTO addStudentToClass(String classId, String studentId) {
+    public ClassMembershipDTO addStudentToClass(String classId, String studentId) {
         Class classEntity = classRepository.findById(classId)
                 .orElseThrow(() -> new ResourceNotFoundException("Classe non trouvée avec l'ID: " + classId));
 
@@ -116,25 +203,156 @@ public class ClassService {
             throw new IllegalArgumentException("L'utilisateur n'est pas un étudiant");
         }
 
-        student.setClassId(classEntity);
-        userRepository.save(student);
+        String action = "UNCHANGED";
+        if (!classId.equals(MongoIds.refId(student.getClassId()))) {
+            student.setClassId(classEntity);
+            userRepository.save(student);
+            action = "ADDED";
+        }
 
-        return toResponseDTO(classEntity);
+        return toMembershipDTO(classId, studentId, action);
     }
 
     @Transactional
-    public ClassResponseDTO removeStudentFromClass(String classId, String studentId) {
-        Class classEntity = classRepository.findById(classId)
-                .orElseThrow(() -> new ResourceNotFoundException("Classe non trouvée avec l'ID: " + classId));
+    public ClassMembershipDTO removeStudentFromClass(String classId, String studentId) {
+        if (!classRepository.existsById(classId)) {
+            throw new ResourceNotFoundException("Classe non trouvée avec l'ID: " + classId);
+        }
 
         User student = userRepository.findById(studentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Étudiant non trouvé avec l'ID: " + studentId));
 
-        if (student.getClassId() != null && student.getClassId().getId().equals(classId)) {
+        String action = "UNCHANGED";
+        if (classId.equals(MongoIds.refId(student.getClassId()))) {
             student.setClassId(null);
             userRepository.save(student);
+            action = "REMOVED";
         }
 
-        return toResponseDTO(classEntity);
+        return toMembershipDTO(classId, studentId, action);
+    }
+
+    private ClassMembershipDTO toMembershipDTO(String classId, String studentId, String action) {
+        return ClassMembershipDTO.builder()
+                .classId(classId)
+                .studentId(studentId)
+                .action(action)
+                .studentCount(userRepository.countStudents(classId, null))
+                .build();
+    }
+
+    /**
+     * Inscriptions et désinscriptions en masse : un {@code updateMany} par lot de
+     * {@code app.enrollment.batch-size} identifiants, sans charger les étudiants.
+     */
+    public List<BulkOperationReportDTO> bulkEnroll(String classId, BulkEnrollmentRequest request) {
+        if (!classRepository.existsById(classId)) {
+            throw new ResourceNotFoundException("Classe non trouvée avec l'ID: " + classId);
+        }
+
+        List<BulkOperationReportDTO> reports = new ArrayList<>();
+        if (request.getAdd() != null && !request.getAdd().isEmpty()) {
+            reports.add(inBatches("ADD", classId, request.getAdd(),
+                    batch -> userRepository.assignStudentsToClass(batch, classId)));
+        }
+        if (request.getRemove() != null && !request.getRemove().isEmpty()) {
+            reports.add(inBatches("REMOVE", classId, request.getRemove(),
+                    batch -> userRepository.removeStudentsFromClass(batch, classId)));
+        }
+        return reports;
+    }
+
+    /**
+     * Passage d'année : tous les membres de chaque classe de l'année N rejoignent la classe
+     * de l'année N+1 qui lui correspond. Un seul {@code updateMany} par classe source.
+     */
+    public List<BulkOperationReportDTO> promote(PromotionRequest request) {
+        Map<String, String> mapping = request.getMapping();
+        if (mapping == null || mapping.isEmpty()) {
+            throw new IllegalArgumentException("Au moins une correspondance de classes est requise");
+        }
+
+        Set<String> ids = new HashSet<>(mapping.keySet());
+        ids.addAll(mapping.values());
+        Map<String, Class> classes = classRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Class::getId, Function.identity()));
+        ids.stream()
+                .filter(id -> !classes.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new ResourceNotFoundException("Classe non trouvée avec l'ID: " + id);
+                });
+
+        // Toutes les classes sources doivent appartenir à la même année, et leurs successeurs à l'année suivante
+        Set<Integer> sourceYears = mapping.keySet().stream()
+                .map(id -> startYear(classes.get(id)))
+                .collect(Collectors.toSet());
+        if (sourceYears.size() != 1) {
+            throw new IllegalArgumentException("Les classes sources doivent toutes appartenir à la même année");
+        }
+        int sourceYear = sourceYears.iterator().next();
+        mapping.forEach((from, to) -> {
+            if (startYear(classes.get(to)) != sourceYear + 1) {
+                throw new IllegalArgumentException("La classe " + classes.get(to).getName()
+                        + " n'appartient pas à l'année suivant " + classes.get(from).getYear());
+            }
+        });
+
+        List<BulkOperationReportDTO> reports = new ArrayList<>();
+        mapping.forEach((from, to) -> {
+            long start = System.currentTimeMillis();
+            UpdateResult result = userRepository.moveStudents(from, to);
+            log.info("Promotion {} -> {} : {} étudiant(s) déplacé(s)",
+                    classes.get(from).getName(), classes.get(to).getName(), result.getModifiedCount());
+            reports.add(BulkOperationReportDTO.builder()
+                    .operation("PROMOTE " + from + " -> " + to)
+                    .requested(1) // une classe source par correspondance de la requête
+                    .matched(result.getMatchedCount())
+                    .modified(result.getModifiedCount())
+                    .batches(1)
+                    .durationMs(System.currentTimeMillis() - start)
+                    .build());
+        });
+        return reports;
+    }
+
+    private BulkOperationReportDTO inBatches(String operation, String classId, Collection<String> studentIds,
+                                             Function<List<String>, UpdateResult> update) {
+        long start = System.currentTimeMillis();
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(studentIds));
+        int batchSize = Math.max(1, enrollmentBatchSize);
+
+        long matched = 0;
+        long modified = 0;
+        int batches = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<String> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            UpdateResult result = update.apply(batch);
+            matched += result.getMatchedCount();
+            modified += result.getModifiedCount();
+            batches++;
+            log.debug("{} classe {} : lot {} traité ({}/{})", operation, classId, batches,
+                    Math.min(from + batchSize, ids.size()), ids.size());
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        log.info("{} classe {} : {} étudiant(s) modifié(s) sur {} en {} lots ({} ms)",
+                operation, classId, modified, ids.size(), batches, duration);
+
+        return BulkOperationReportDTO.builder()
+                .operation(operation)
+                .requested(ids.size())
+                .matched(matched)
+                .modified(modified)
+                .batches(batches)
+                .durationMs(duration)
+                .build();
+    }
+
+    // Première année d'un libellé « 2023-2024 » ou « 2023 »
+    private int startYear(Class classEntity) {
+        return AcademicYears.startYear(classEntity.getYear())
+                .orElseThrow(() -> new IllegalArgumentException("Année invalide pour la classe "
+                        + classEntity.getName() + ": " + classEntity.getYear()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package com.esatic.assignmentapp.service;
+
+import com.esatic.assignmentapp.dto.PaginatedResponse;
+import com.esatic.assignmentapp.repository.MongoIds;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Lecture bornée des collections : pagination par numéro de page ou par curseur, et export NDJSON.
+ * <p>
+ * Le {@code mapper} reçoit les documents par lot pour que les références soient résolues
+ * en une requête par lot plutôt qu'une par document.
+ */
+@Component
+@RequiredArgsConstructor
+public class CollectionPager {
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.pagination.stream-batch-size:500}")
+    private int streamBatchSize;
+
+    /**
+     * {@link Pageable} à partir d'un numéro de page commençant à 1, taille plafonnée.
+     */
+    public Pageable pageable(int page, int limit, Sort sort) {
+        return PageRequest.of(Math.max(page, 1) - 1, cap(limit), sort);
+    }
+
+    /**
+     * Page de résultats. Si {@code after} est fourni, la pagination se fait par curseur sur {@code _id}
+     * (l'ordre {@code sort} est alors ignoré, {@code ?after=} vide pour la première page) : sans comptage,
+     * le {@code nextCursor} renvoyé ne vaut que pour ce mode. Sinon, pagination par numéro de page à partir de 1
+     * dans l'ordre {@code sort}, sans curseur.
+     * Les champs {@code excludedFields} ne sont pas lus depuis Mongo.
+     */
+    public <T, D> PaginatedResponse<D> page(java.lang.Class<T> type, Criteria filter, Sort sort,
+                                            int page, int limit, String after,
+                                            Function<List<T>, List<D>> mapper, String... excludedFields) {
+        return page(type, type, filter, sort, page, limit, after, mapper, excludedFields);
+    }
+
+    /**
+     * Variante qui lit la collection de {@code entityType} sous un autre type,
+     * typiquement {@link Document} pour obtenir les DBRef sans les résoudre.
+     */
+    public <T, D> PaginatedResponse<D> page(java.lang.Class<?> entityType, java.lang.Class<T> type, Criteria filter,
+                                            Sort sort, int page, int limit, String after,
+                                            Function<List<T>, List<D>> mapper, String... excludedFields) {
+        String collection = mongoTemplate.getCollectionName(entityType);
+        int size = cap(limit);
+
+        if (after != null) {
+            boolean first = after.isBlank();
+            Query query = query(filter, excludedFields);
+            if (!first) {
+                query.addCriteria(Criteria.where("_id").gt(MongoIds.toObjectId(Cursors.decode(after))));
+            }
+            query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(size + 1);
+            List<T> rows = mongoTemplate.find(query, type, collection);
+            boolean hasNextPage = rows.size() > size;
+            List<T> content = hasNextPage ? rows.subList(0, size) : rows;
+
+            return PaginatedResponse.<D>builder()
+                    .docs(mapper.apply(content))
+                    .limit(size)
+                    .hasPrevPage(!first)
+                    .hasNextPage(hasNextPage)
+                    .nextCursor(hasNextPage ? Cursors.encode(idOf(content.get(content.size() - 1))) : null)
+                    .build();
+        }
+
+        long total = mongoTemplate.count(query(filter), type, collection);
+        int pageNumber = Math.max(page, 1);
+        Query query = query(filter, excludedFields)
+                .with(sort.and(Sort.by(Sort.Direction.ASC, "_id")))
+                .skip((long) (pageNumber - 1) * size)
+                .limit(size);
+        List<T> content = mongoTemplate.find(query, type, collection);
+        int totalPages = (int) ((total + size - 1) / size);
+
+        return PaginatedResponse.<D>builder()
+                .docs(mapper.apply(content))
+                .totalDocs(total)
+                .limit(size)
+                .page(pageNumber)
+                .totalPages(totalPages)
+                .pagingCounter((pageNumber - 1) * size + 1)
+                .hasPrevPage(pageNumber > 1)
+                .hasNextPage(pageNumber < totalPages)
+                .prevPage(pageNumber > 1 ? pageNumber - 1 : null)
+                .nextPage(pageNumber < totalPages ? pageNumber + 1 : null)
+                .build();
+    }
+
+    /**
+     * Écrit toute la collection en NDJSON (un objet JSON par ligne) en parcourant un curseur Mongo :
+     * la mémoire utilisée reste celle d'un lot, quelle que soit la taille de la collection.
+     */
+    public <T, D> void streamNdjson(java.lang.Class<T> type, Criteria filter,
+                                    Function<List<T>, List<D>> mapper, OutputStream out, String... excludedFields) {
+        streamNdjson(type, type, filter, mapper, out, excludedFields);
+    }
+
+    public <T, D> void streamNdjson(java.lang.Class<?> entityType, java.lang.Class<T> type, Criteria filter,
+                                    Function<List<T>, List<D>> mapper, OutputStream out, String... excludedFields) {
+        String collection = mongoTemplate.getCollectionName(entityType);
+        Query query = query(filter, excludedFields).with(Sort.by(Sort.Direction.ASC, "_id"));
+        query.cursorBatchSize(streamBatchSize);
+
+        try (Stream<T> stream = mongoTemplate.stream(query, type, collection)) {
+            Iterator<T> iterator = stream.iterator();
+            List<T> batch = new ArrayList<>(streamBatchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == streamBatchSize || !iterator.hasNext()) {
+                    for (D row : mapper.apply(batch)) {
+                        out.write(objectMapper.writeValueAsBytes(row));
+                        out.write('\n');
+                    }
+                    out.flush();
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Échec de l'export NDJSON", e);
+        }
+    }
+
+    private int cap(int limit) {
+        return Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    private static Query query(Criteria filter, String... excludedFields) {
+        Query query = filter != null ? new Query(filter) : new Query();
+        if (excludedFields.length > 0) {
+            query.fields().exclude(excludedFields);
+        }
+        return query;
+    }
+
+    private String idOf(Object entity) {
+        if (entity instanceof Document document) {
+            return document.get("_id").toString();
+        }
+        Object id = mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(entity.getClass())
+                .getIdentifierAccessor(entity)
+                .getIdentifier();
+        return id != null ? id.toString() : null;
+    }
+}
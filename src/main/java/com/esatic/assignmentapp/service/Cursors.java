@@ -0,0 +1,28 @@
+package com.esatic.assignmentapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Curseurs opaques de pagination par clé ({@code _id} du dernier élément renvoyé).
+ */
+public final class Cursors {
+
+    private Cursors() {
+    }
+
+    public static String encode(String id) {
+        return id == null ? null : Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur invalide: " + cursor);
+        }
+    }
+}
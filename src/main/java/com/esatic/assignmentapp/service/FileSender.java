@@ -0,0 +1,247 @@
+package com.esatic.assignmentapp.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Envoi d'un fichier sans passer par un tampon applicatif quand il est stocké localement.
+ * <p>
+ * Un fichier local entier ou une plage unique est confié à Tomcat par sendfile quand le connecteur le permet
+ * (le noyau copie directement du cache disque vers la socket) ; sinon, et pour les plages multiples
+ * ({@code multipart/byteranges}), chaque plage est envoyée par {@link FileChannel#transferTo}.
+ * Un objet d'un stockage distant (GridFS) est lu en flux, plage par plage.
+ * Gère {@code If-None-Match}, {@code If-Range} et {@code Range} (416 si la plage est invalide).
+ * <p>
+ * Un fichier stocké en gzip est envoyé tel quel ({@code Content-Encoding: gzip}) aux clients qui l'acceptent,
+ * décompressé à la volée pour les autres ; les plages ne sont pas servies sur ces fichiers.
+ */
+@Component
+public class FileSender {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    public void send(ServedFile file, boolean download, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        StoredObject object = file.object();
+        if (BlobStore.GZIP.equals(object.encoding())) {
+            sendEncoded(file, download, request, response);
+            return;
+        }
+        long length = object.length();
+
+        writeHeaders(file, file.etag(), download, response);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), file.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        List<HttpRange> ranges = requestedRanges(request, file, length);
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(file.contentType());
+            sendRange(object, 0, length, request, response);
+        } else if (ranges.size() == 1) {
+            long start = ranges.get(0).getRangeStart(length);
+            long end = ranges.get(0).getRangeEnd(length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(file.contentType());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            sendRange(object, start, end + 1, request, response);
+        } else {
+            sendMultipart(file, ranges, length, response);
+        }
+    }
+
+    private void sendEncoded(ServedFile file, boolean download, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // Chaque représentation a son propre ETag : un cache ne doit pas confondre octets compressés et d'origine
+        String etag = gzip ? file.etag().substring(0, file.etag().length() - 1) + "-gzip\"" : file.etag();
+
+        writeHeaders(file, etag, download, response);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(file.contentType());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, BlobStore.GZIP);
+            sendRange(file.object(), 0, file.object().length(), request, response);
+            return;
+        }
+        response.setContentLengthLong(file.length());
+        try (InputStream in = new GZIPInputStream(file.object().open(), 64 * 1024)) {
+            in.transferTo(response.getOutputStream());
+        }
+        response.flushBuffer();
+    }
+
+    private static void writeHeaders(ServedFile file, String etag, boolean download, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.immutable() ? IMMUTABLE : "no-cache");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                (download ? ContentDisposition.attachment() : ContentDisposition.inline())
+                        .filename(file.name(), StandardCharsets.UTF_8)
+                        .build()
+                        .toString());
+    }
+
+    // gzip accepté sauf refus explicite (q=0) ; le joker * compte comme une acceptation
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim().replace(" ", "");
+                if (parameter.startsWith("q=")) {
+                    refused = parameter.substring(2).matches("0(\\.0{0,3})?");
+                }
+            }
+            return !refused;
+        }
+        return false;
+    }
+
+    /**
+     * Plages demandées : liste vide pour le fichier entier, {@code null} si aucune plage n'est satisfaisable.
+     */
+    static List<HttpRange> requestedRanges(HttpServletRequest request, ServedFile file, long length) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return List.of();
+        }
+        // If-Range : comparaison forte, contenu modifié depuis, on renvoie le fichier entier
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && (file.etag().startsWith("W/") || !ifRange.equals(file.etag()))) {
+            return List.of();
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            long total = 0;
+            for (HttpRange range : ranges) {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                if (start > end) {
+                    return null;
+                }
+                total += end - start + 1;
+            }
+            // Plages qui se recouvrent au point de dépasser le fichier : le fichier entier coûte moins cher
+            return total > length ? List.of() : ranges;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void sendRange(StoredObject object, long start, long end,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(end - start);
+        Optional<Path> local = object.localFile();
+        if (local.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat envoie le fichier après le retour du contrôleur, sans copie en espace utilisateur
+            request.setAttribute(SENDFILE_FILENAME, local.get().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        copy(object, start, end, response.getOutputStream());
+        response.flushBuffer();
+    }
+
+    private static void sendMultipart(ServedFile file, List<HttpRange> ranges, long length,
+                                      HttpServletResponse response) throws IOException {
+        String boundary = UUID.randomUUID().toString();
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+
+        OutputStream out = response.getOutputStream();
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            out.write(("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + file.contentType() + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + start + "-" + end + "/" + length + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            copy(file.object(), start, end + 1, out);
+        }
+        out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    // Fichier local : transferTo ; stockage distant : lecture de la seule plage demandée
+    private static void copy(StoredObject object, long start, long end, OutputStream out) throws IOException {
+        Optional<Path> local = object.localFile();
+        if (local.isEmpty()) {
+            try (InputStream in = object.open(start, end)) {
+                in.transferTo(out);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(local.get(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String weakless = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals(weakless) || tag.equals("W/" + weakless)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,119 +1,356 @@
 package com.esatic.assignmentapp.service;
 
+import com.esatic.assignmentapp.dto.DedupReportDTO;
+import com.esatic.assignmentapp.dto.StoredFileDTO;
+import com.esatic.assignmentapp.exception.PayloadTooLargeException;
 import com.esatic.assignmentapp.exception.ResourceNotFoundException;
 import com.esatic.assignmentapp.model.Assignment;
-import com.esatic.assignmentapp.repository.AssignmentRepository;
+import com.esatic.assignmentapp.model.StoredFile;
+import com.esatic.assignmentapp.repository.StoredFileRepository;
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Pièces jointes et photos de profil.
+ * <p>
+ * Chaque upload reçoit une URL stable {@code /uploads/<kind>/<uuid>.<ext>} décrite par un {@link StoredFile} ;
+ * le contenu lui-même est dédupliqué dans le {@link BlobStore}, sur le {@link StorageBackend} configuré.
+ * Les fichiers antérieurs encore présents dans {@code uploads/assignments} et {@code uploads/profiles}
+ * restent servis depuis le disque local jusqu'à la migration, qui les place dans ce stockage.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class FileService {
 
-    private final Path profileRoot = Paths.get("uploads/profiles");
-    private final Path assignmentRoot = Paths.get("uploads/assignments");
-    private final AssignmentRepository assignmentRepository;
+    private static final String PROFILES = "profiles";
+    private static final String ASSIGNMENTS = "assignments";
 
-    public String storeFile(MultipartFile file, String type) throws IOException {
-        // Initialisation des répertoires
-        initStorageDirectories();
+    private final LocalStorageBackend legacyProfiles = new LocalStorageBackend(Paths.get("uploads/profiles"));
+    private final LocalStorageBackend legacyAssignments = new LocalStorageBackend(Paths.get("uploads/assignments"));
+    private final StoredFileRepository storedFileRepository;
+    private final BlobStore blobStore;
+    private final ThumbnailService thumbnailService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.uploads.max-size:100MB}")
+    private DataSize maxUploadSize;
 
+    @Value("${app.uploads.allowed-types:application/pdf,image/png,image/jpeg}")
+    private List<String> allowedTypes;
+
+    public String storeFile(MultipartFile file, String type) throws IOException {
         // Validation du fichier
         if (file.isEmpty()) {
             throw new RuntimeException("Impossible de stocker un fichier vide");
         }
 
-        // Génération d'un nom de fichier unique
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        String fileExtension = "";
-        if (originalFilename.contains(".")) {
-            fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getOriginalFilename(), file.getContentType(), type).getFileUrl();
         }
-        String newFilename = UUID.randomUUID().toString() + fileExtension;
+    }
 
-        // Sélection du répertoire de destination
-        Path targetPath;
-        if ("profile".equals(type)) {
-            targetPath = profileRoot.resolve(newFilename);
-        } else {
-            targetPath = assignmentRoot.resolve(newFilename);
+    /**
+     * Upload en flux : le corps de la requête est lu une seule fois et écrit dans un fichier temporaire
+     * importé ensuite dans le stockage (renommage atomique en local), sans passer par le stockage temporaire du multipart.
+     * Taille et type sont vérifiés avant et pendant la lecture ; l'empreinte SHA-256 est calculée au passage.
+     */
+    public StoredFileDTO storeStream(InputStream in, String originalName, String contentType,
+                                     long declaredLength, String type) throws IOException {
+        String mediaType = checkUpload(contentType, declaredLength, type);
+        return store(in, originalName, mediaType, type);
+    }
+
+    private StoredFileDTO store(InputStream in, String originalName, String mediaType, String type) throws IOException {
+        Path partPath = blobStore.newTempFile();
+        UploadStreams.Copied copied;
+        try (OutputStream out = Files.newOutputStream(partPath)) {
+            copied = UploadStreams.copy(in, out, maxUploadSize.toBytes());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partPath);
+            throw e;
+        }
+        if (copied.size() == 0) {
+            Files.deleteIfExists(partPath);
+            throw new IllegalArgumentException("Impossible de stocker un fichier vide");
         }
+        return register(partPath, copied, originalName, mediaType, "profile".equals(type) ? PROFILES : ASSIGNMENTS);
+    }
 
-        // Copie du fichier
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * Vérifie la taille annoncée et le type d'un upload ; renvoie le type MIME normalisé.
+     */
+    public String checkUpload(String contentType, long declaredLength, String type) {
+        long maxBytes = maxUploadSize.toBytes();
+        if (declaredLength > maxBytes) {
+            throw new PayloadTooLargeException("Fichier trop volumineux (maximum " + maxBytes + " octets)");
+        }
+        return checkContentType(contentType, type);
+    }
 
-        // Retourner l'URL relative du fichier
-        return "/uploads/" + type + "s/" + newFilename;
+    /**
+     * Place un fichier local déjà complet (consommé) parmi les pièces jointes des devoirs.
+     */
+    public StoredFileDTO storeCompletedFile(Path source, String originalName, String mediaType) throws IOException {
+        UploadStreams.Copied copied = new UploadStreams.Copied(Files.size(source), UploadStreams.sha256(source));
+        return register(source, copied, originalName, mediaType, ASSIGNMENTS);
     }
 
-    public Resource loadFileAsResource(String filename, String type) throws MalformedURLException {
-        Path fileStorageLocation;
-        if ("profile".equals(type)) {
-            fileStorageLocation = profileRoot;
-        } else {
-            fileStorageLocation = assignmentRoot;
+    private StoredFileDTO register(Path source, UploadStreams.Copied copied, String originalName, String mediaType,
+                                   String kind) throws IOException {
+        String name = StringUtils.cleanPath(originalName == null ? "" : originalName);
+        StoredFile storedFile = StoredFile.builder()
+                .id(UUID.randomUUID() + extensionOf(name))
+                .kind(kind)
+                .sha256(copied.sha256())
+                .name(name)
+                .contentType(mediaType)
+                .size(copied.size())
+                .createdAt(new Date())
+                .build();
+
+        blobStore.commit(source, copied.sha256(), copied.size(), mediaType);
+        storedFileRepository.save(storedFile);
+        if (PROFILES.equals(kind)) {
+            thumbnailService.generateAsync(copied.sha256(), mediaType);
         }
 
-        Path filePath = fileStorageLocation.resolve(filename).normalize();
-        Resource resource = new UrlResource(filePath.toUri());
+        return StoredFileDTO.builder()
+                .fileUrl("/uploads/" + kind + "/" + storedFile.getId())
+                .name(name)
+                .contentType(mediaType)
+                .size(copied.size())
+                .sha256(copied.sha256())
+                .build();
+    }
 
-        if (resource.exists()) {
-            return resource;
-        } else {
-            throw new RuntimeException("Fichier non trouvé: " + filename);
+    private String checkContentType(String contentType, String type) {
+        String mediaType = contentType == null ? "" : contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        if (!allowedTypes.contains(mediaType)) {
+            throw new IllegalArgumentException("Type de fichier non autorisé : " + mediaType);
         }
+        if ("profile".equals(type) && !mediaType.startsWith("image/")) {
+            throw new IllegalArgumentException("La photo de profil doit être une image");
+        }
+        return mediaType;
     }
 
-    public void addFileToAssignment(String assignmentId, String fileUrl) {
-        Assignment assignment = assignmentRepository.findById(assignmentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Assignment non trouvé avec l'ID: " + assignmentId));
+    // Extension limitée aux caractères alphanumériques : le nom stocké est toujours généré
+    private static String extensionOf(String filename) {
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0) {
+            return "";
+        }
+        String extension = filename.substring(dot + 1).replaceAll("[^A-Za-z0-9]", "");
+        return extension.isEmpty() ? "" : "." + extension.toLowerCase(Locale.ROOT);
+    }
 
-        if (assignment.getAttachments() == null) {
-            assignment.setAttachments(new ArrayList<>());
+    /**
+     * Fichier à servir pour une URL d'upload : blob dédupliqué (ETag = SHA-256, contenu immuable)
+     * ou fichier antérieur à la migration (ETag faible taille + date).
+     * Le type servi est celui enregistré, ou déduit de l'extension puis des premiers octets ;
+     * un type hors de la liste autorisée est servi en {@code application/octet-stream}.
+     */
+    public ServedFile resolve(String filename, String type, Integer size) throws IOException {
+        if (size != null && !thumbnailService.isAllowedSize(size)) {
+            throw new IllegalArgumentException("Taille de miniature non disponible : " + size);
+        }
+        StoredFile storedFile = storedFileRepository.findById(filename).orElse(null);
+        StoredObject blob = storedFile == null ? null : blobStore.locate(storedFile.getSha256());
+        if (blob != null) {
+            if (size != null && thumbnailService.supports(storedFile.getContentType())) {
+                Optional<ServedFile> thumbnail = thumbnail(storedFile, size);
+                if (thumbnail.isPresent()) {
+                    return thumbnail.get();
+                }
+            }
+            // Un contenu sans type enregistré n'est jamais compressé : la détection ne lit pas d'octets gzip
+            String contentType = servedType(storedFile.getContentType() != null
+                    ? storedFile.getContentType() : sniff(blob, filename));
+            return new ServedFile(blob, displayName(storedFile.getName(), filename), contentType,
+                    "\"" + storedFile.getSha256() + "\"", true, storedFile.getSize());
         }
 
-        assignment.getAttachments().add(fileUrl);
-        assignment.setUpdatedAt(new Date());
-        assignmentRepository.save(assignment);
+        // Fichiers antérieurs à la migration : toujours sur le disque local
+        LocalStorageBackend storage = legacyStorage(type.startsWith("profile") ? PROFILES : ASSIGNMENTS);
+        Path path = storage.localFile(filename)
+                .orElseThrow(() -> new ResourceNotFoundException("Fichier non trouvé: " + filename));
+        long length = Files.size(path);
+        StoredObject legacy = new StoredObject(storage, filename, length, null);
+        String etag = "W/\"" + length + "-" + Files.getLastModifiedTime(path).toMillis() + "\"";
+        return new ServedFile(legacy, filename, servedType(sniff(legacy, filename)), etag, false, length);
+    }
+
+    // Miniature générée à la demande si elle manque ; l'original est servi si l'image ne se décode pas
+    private Optional<ServedFile> thumbnail(StoredFile storedFile, int size) {
+        String contentType = storedFile.getContentType();
+        return thumbnailService.variant(storedFile.getSha256(), contentType, size)
+                .map(object -> new ServedFile(object,
+                        size + "-" + displayName(storedFile.getName(), storedFile.getId()),
+                        thumbnailService.mediaTypeOf(contentType),
+                        "\"" + storedFile.getSha256() + "-" + size + "\"",
+                        true,
+                        object.length()));
+    }
+
+    private String servedType(String contentType) {
+        String mediaType = contentType == null ? "" : contentType.split(";")[0].trim().toLowerCase(Locale.ROOT);
+        return allowedTypes.contains(mediaType) ? mediaType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
     }
 
+    private static String sniff(StoredObject object, String filename) throws IOException {
+        Optional<MediaType> byExtension = MediaTypeFactory.getMediaType(filename);
+        if (byExtension.isPresent()) {
+            return byExtension.get().toString();
+        }
+        try (InputStream in = new BufferedInputStream(object.open())) {
+            return URLConnection.guessContentTypeFromStream(in);
+        }
+    }
+
+    private static String displayName(String name, String fallback) {
+        return StringUtils.hasText(name) ? name : fallback;
+    }
+
+    // $push atomique : pas de lecture préalable, pas de pièce jointe perdue entre deux uploads simultanés
+    public void addFileToAssignment(String assignmentId, String fileUrl) {
+        UpdateResult result = mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(assignmentId)),
+                new Update().push("attachments", fileUrl).set("updatedAt", new Date()),
+                Assignment.class);
+
+        if (result.getMatchedCount() == 0) {
+            throw new ResourceNotFoundException("Assignment non trouvé avec l'ID: " + assignmentId);
+        }
+    }
+
+    /**
+     * Supprime le fichier de l'URL ; le contenu n'est effacé qu'avec sa dernière référence.
+     */
     public void deleteFile(String fileUrl) throws IOException {
         // Extract filename from URL
         String filename = fileUrl.substring(fileUrl.lastIndexOf("/") + 1);
-        Path path;
+        String kind;
 
         if (fileUrl.contains("/profiles/")) {
-            path = profileRoot.resolve(filename);
+            kind = PROFILES;
         } else if (fileUrl.contains("/assignments/")) {
-            path = assignmentRoot.resolve(filename);
+            kind = ASSIGNMENTS;
         } else {
             throw new RuntimeException("Type de fichier non pris en charge");
         }
 
-        Files.deleteIfExists(path);
+        StoredFile storedFile = storedFileRepository.findById(filename).orElse(null);
+        if (storedFile != null) {
+            storedFileRepository.delete(storedFile);
+            blobStore.release(storedFile.getSha256());
+        }
+        legacyStorage(kind).delete(filename);
+    }
+
+    /**
+     * Libère les fichiers d'un document supprimé (pièces jointes, photo) ; les URL externes sont ignorées
+     * et un échec est journalisé sans interrompre la suppression.
+     */
+    public void releaseFiles(Collection<String> fileUrls) {
+        for (String fileUrl : fileUrls) {
+            if (fileUrl == null || !(fileUrl.contains("/uploads/" + PROFILES + "/")
+                    || fileUrl.contains("/uploads/" + ASSIGNMENTS + "/"))) {
+                continue;
+            }
+            try {
+                deleteFile(fileUrl);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Fichier {} non libéré", fileUrl, e);
+            }
+        }
+    }
+
+    /**
+     * Migration des fichiers antérieurs vers le stockage dédupliqué, sans changer leurs URL.
+     * L'enregistrement est créé avant le déplacement : une migration interrompue peut être relancée
+     * et les fichiers restent servis depuis leur ancien emplacement tant qu'ils n'ont pas été déplacés.
+     */
+    public DedupReportDTO migrateLegacyFiles() throws IOException {
+        long start = System.currentTimeMillis();
+        DedupReportDTO report = new DedupReportDTO();
+        for (String kind : List.of(ASSIGNMENTS, PROFILES)) {
+            LocalStorageBackend storage = legacyStorage(kind);
+            for (String key : storage.keys()) {
+                Optional<Path> file = storage.localFile(key);
+                if (file.isPresent()) {
+                    migrate(file.get(), kind, report);
+                }
+            }
+        }
+        report.setDurationMs(System.currentTimeMillis() - start);
+        log.info("Migration des uploads : {} fichier(s), {} doublon(s), {} octet(s) libéré(s)",
+                report.getFiles(), report.getDuplicates(), report.getBytesReclaimed());
+        return report;
     }
 
-    private void initStorageDirectories() throws IOException {
-        if (!Files.exists(profileRoot)) {
-            Files.createDirectories(profileRoot);
+    private void migrate(Path file, String kind, DedupReportDTO report) throws IOException {
+        String filename = file.getFileName().toString();
+        long size = Files.size(file);
+        String sha256 = UploadStreams.sha256(file);
+        boolean duplicate = blobStore.exists(sha256);
+        String contentType = Files.probeContentType(file);
+
+        if (!storedFileRepository.existsById(filename)) {
+            storedFileRepository.save(StoredFile.builder()
+                    .id(filename)
+                    .kind(kind)
+                    .sha256(sha256)
+                    .name(filename)
+                    .contentType(contentType)
+                    .size(size)
+                    .createdAt(new Date(Files.getLastModifiedTime(file).toMillis()))
+                    .build());
         }
-        if (!Files.exists(assignmentRoot)) {
-            Files.createDirectories(assignmentRoot);
+        blobStore.commit(file, sha256, size, contentType);
+
+        report.setFiles(report.getFiles() + 1);
+        if (duplicate) {
+            report.setDuplicates(report.getDuplicates() + 1);
+            report.setBytesReclaimed(report.getBytesReclaimed() + size);
         }
     }
-}
\ No newline at end of file
+
+    private LocalStorageBackend legacyStorage(String kind) {
+        return PROFILES.equals(kind) ? legacyProfiles : legacyAssignments;
+    }
+
+    /**
+     * Répertoires des fichiers antérieurs, pour la migration vers la disposition répartie.
+     */
+    List<LocalStorageBackend> legacyStorages() {
+        return List.of(legacyAssignments, legacyProfiles);
+    }
+}
@@ -0,0 +1,133 @@
+package com.esatic.assignmentapp.service;
+
+import com.mongodb.MongoGridFSException;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSDownloadStream;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.regex.Pattern;
+
+/**
+ * Stockage dans GridFS (bucket {@code app.storage.gridfs.bucket}) : les contenus sont partagés par tous les nœuds.
+ * <p>
+ * La clé est le {@code filename} GridFS. Une réécriture crée une nouvelle révision puis supprime les plus
+ * anciennes ; deux nœuds qui écrivent la même clé en même temps laissent la plus récente.
+ * Une plage est lue en sautant directement aux chunks concernés.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "gridfs")
+public class GridFsStorageBackend implements StorageBackend {
+
+    private final GridFSBucket bucket;
+    private final int chunkSizeBytes;
+
+    @Autowired
+    public GridFsStorageBackend(MongoTemplate mongoTemplate,
+                                @Value("${app.storage.gridfs.bucket:uploads}") String bucketName,
+                                @Value("${app.storage.gridfs.chunk-size:1MB}") DataSize chunkSize) {
+        this(mongoTemplate.getDb(), bucketName, (int) chunkSize.toBytes());
+    }
+
+    public GridFsStorageBackend(MongoDatabase database, String bucketName, int chunkSizeBytes) {
+        this.bucket = GridFSBuckets.create(database, bucketName);
+        this.chunkSizeBytes = chunkSizeBytes;
+    }
+
+    @Override
+    public void write(String key, InputStream content) throws IOException {
+        ObjectId id = bucket.uploadFromStream(key, content, new GridFSUploadOptions().chunkSizeBytes(chunkSizeBytes));
+        List<ObjectId> older = new ArrayList<>();
+        bucket.find(Filters.and(Filters.eq("filename", key), Filters.lt("_id", id)))
+                .forEach(file -> older.add(file.getObjectId()));
+        older.forEach(this::deleteQuietly);
+    }
+
+    @Override
+    public InputStream read(String key) throws IOException {
+        try {
+            return bucket.openDownloadStream(key);
+        } catch (MongoGridFSException e) {
+            throw noSuchFile(key, e);
+        }
+    }
+
+    @Override
+    public InputStream read(String key, long start, long end) throws IOException {
+        GridFSDownloadStream stream;
+        try {
+            stream = bucket.openDownloadStream(key);
+        } catch (MongoGridFSException e) {
+            throw noSuchFile(key, e);
+        }
+        // skip() positionne le flux sur le chunk de départ sans télécharger les précédents
+        long skipped = 0;
+        while (skipped < start) {
+            long step = stream.skip(start - skipped);
+            if (step <= 0) {
+                break;
+            }
+            skipped += step;
+        }
+        return UploadStreams.limit(stream, end - start);
+    }
+
+    @Override
+    public OptionalLong size(String key) {
+        GridFSFile file = latest(key);
+        return file == null ? OptionalLong.empty() : OptionalLong.of(file.getLength());
+    }
+
+    @Override
+    public boolean delete(String key) {
+        List<ObjectId> ids = new ArrayList<>();
+        bucket.find(Filters.eq("filename", key)).forEach(file -> ids.add(file.getObjectId()));
+        ids.forEach(this::deleteQuietly);
+        return !ids.isEmpty();
+    }
+
+    // Préfixe ancré : servi par l'index { filename, uploadDate } de GridFS
+    @Override
+    public void deleteByPrefix(String prefix) {
+        List<ObjectId> ids = new ArrayList<>();
+        bucket.find(Filters.regex("filename", "^" + Pattern.quote(prefix)))
+                .forEach(file -> ids.add(file.getObjectId()));
+        ids.forEach(this::deleteQuietly);
+    }
+
+    private GridFSFile latest(String key) {
+        return bucket.find(Filters.eq("filename", key)).sort(Sorts.descending("uploadDate")).limit(1).first();
+    }
+
+    // Révision déjà supprimée par un autre nœud
+    private void deleteQuietly(ObjectId id) {
+        try {
+            bucket.delete(id);
+        } catch (MongoGridFSException ignored) {
+            // rien à faire
+        }
+    }
+
+    private static NoSuchFileException noSuchFile(String key, MongoGridFSException cause) {
+        NoSuchFileException exception = new NoSuchFileException(key);
+        exception.initCause(cause);
+        return exception;
+    }
+}
@@ -0,0 +1,266 @@
+package com.esatic.assignmentapp.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Stockage sur le système de fichiers sous {@code app.storage.local.root}, réparti par préfixe de hachage :
+ * la clé {@code abcd1234...} est rangée dans {@code ab/cd/abcd1234...} (au plus 256 entrées par niveau).
+ * Les clés sont des empreintes ou des UUID : leurs 4 premiers caractères hexadécimaux servent de préfixe,
+ * ce qui garde un contenu et ses variantes dans le même répertoire ; les autres clés sont réparties
+ * par leur SHA-256.
+ * <p>
+ * Les fichiers de l'ancienne disposition à plat restent lus à la racine tant que {@link #shardFlatFiles}
+ * ne les a pas déplacés. Les écritures passent par un fichier {@code .part} renommé atomiquement ;
+ * les fichiers sont envoyés sans copie ({@link #localFile}). Ne convient à plusieurs nœuds que sur un volume partagé.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalStorageBackend implements StorageBackend {
+
+    private static final int SHARD_LENGTH = 4;
+
+    private final Path root;
+
+    @Autowired
+    public LocalStorageBackend(@Value("${app.storage.local.root:uploads/blobs}") String root) {
+        this(Paths.get(root));
+    }
+
+    public LocalStorageBackend(Path root) {
+        this.root = root.normalize();
+    }
+
+    @Override
+    public void write(String key, InputStream content) throws IOException {
+        Path target = path(key);
+        Files.createDirectories(target.getParent());
+        Path part = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(part)) {
+                content.transferTo(out);
+            }
+            Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(part);
+        }
+    }
+
+    // Renommage quand la source est sur le même système de fichiers, copie sinon
+    @Override
+    public void importFile(String key, Path source) throws IOException {
+        Path target = path(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            StorageBackend.super.importFile(key, source);
+        }
+    }
+
+    @Override
+    public InputStream read(String key) throws IOException {
+        return Files.newInputStream(existing(key));
+    }
+
+    @Override
+    public InputStream read(String key, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(existing(key), StandardOpenOption.READ);
+        channel.position(start);
+        return UploadStreams.limit(Channels.newInputStream(channel), end - start);
+    }
+
+    @Override
+    public OptionalLong size(String key) throws IOException {
+        try {
+            return OptionalLong.of(Files.size(existing(key)));
+        } catch (NoSuchFileException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean deleted = Files.deleteIfExists(path(key));
+        return Files.deleteIfExists(flatPath(key)) || deleted;
+    }
+
+    @Override
+    public void deleteByPrefix(String prefix) throws IOException {
+        List<Path> directories = new ArrayList<>();
+        directories.add(root);
+        if (hexPrefix(prefix)) {
+            directories.add(path(prefix).getParent());
+        } else {
+            // Préfixe trop court pour désigner un répertoire : parcours de tous les répertoires de répartition
+            directories.addAll(shardDirectories());
+        }
+        for (Path directory : directories) {
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            try (DirectoryStream<Path> matches = Files.newDirectoryStream(directory,
+                    entry -> entry.getFileName().toString().startsWith(prefix) && Files.isRegularFile(entry))) {
+                for (Path match : matches) {
+                    Files.deleteIfExists(match);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        try {
+            return Optional.of(existing(key));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Clés présentes, dans l'ancienne disposition à plat comme dans la nouvelle (hors fichiers {@code .part}).
+     */
+    public List<String> keys() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return List.of();
+        }
+        List<Path> directories = new ArrayList<>();
+        directories.add(root);
+        directories.addAll(shardDirectories());
+        List<String> keys = new ArrayList<>();
+        for (Path directory : directories) {
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, LocalStorageBackend::isStoredFile)) {
+                entries.forEach(entry -> keys.add(entry.getFileName().toString()));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Déplace au plus {@code limit} fichiers de la racine (ancienne disposition) vers leur répertoire de répartition.
+     * Les lectures restent possibles pendant le déplacement.
+     *
+     * @return nombre de fichiers déplacés ; inférieur à {@code limit} quand il n'en reste plus
+     */
+    public int shardFlatFiles(int limit) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        List<Path> batch = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(root, LocalStorageBackend::isStoredFile)) {
+            for (Path entry : entries) {
+                if (batch.size() >= limit) {
+                    break;
+                }
+                batch.add(entry);
+            }
+        }
+        for (Path flat : batch) {
+            Path target = path(flat.getFileName().toString());
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(flat, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                // supprimé entre le listage et le déplacement
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Fichier existant de la clé. La migration ne déplace que de la racine vers la répartition :
+     * un fichier absent des deux emplacements est recherché une seconde fois là où il a pu arriver entre-temps.
+     */
+    private Path existing(String key) throws NoSuchFileException {
+        Path sharded = path(key);
+        if (Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        Path flat = flatPath(key);
+        if (Files.isRegularFile(flat)) {
+            return flat;
+        }
+        if (Files.isRegularFile(sharded)) {
+            return sharded;
+        }
+        throw new NoSuchFileException(key);
+    }
+
+    private Path path(String key) {
+        Path name = flatPath(key).getFileName();
+        String shard = shardOf(key);
+        return root.resolve(shard.substring(0, 2)).resolve(shard.substring(2, SHARD_LENGTH)).resolve(name);
+    }
+
+    // Clé plate : pas de séparateur ni de remontée hors de la racine
+    private Path flatPath(String key) {
+        Path path = root.resolve(key).normalize();
+        if (key.isEmpty() || !root.equals(path.getParent())) {
+            throw new IllegalArgumentException("Clé de stockage invalide : " + key);
+        }
+        return path;
+    }
+
+    private List<Path> shardDirectories() throws IOException {
+        try (Stream<Path> directories = Files.walk(root, 2)) {
+            return directories
+                    .filter(directory -> root.relativize(directory).getNameCount() == 2 && Files.isDirectory(directory))
+                    .filter(directory -> isShardName(directory.getFileName()) && isShardName(directory.getParent().getFileName()))
+                    .toList();
+        }
+    }
+
+    private static String shardOf(String key) {
+        if (hexPrefix(key)) {
+            return key.substring(0, SHARD_LENGTH).toLowerCase(Locale.ROOT);
+        }
+        return HexFormat.of().formatHex(UploadStreams.sha256().digest(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static boolean hexPrefix(String key) {
+        return key.length() >= SHARD_LENGTH && isHex(key.substring(0, SHARD_LENGTH));
+    }
+
+    private static boolean isShardName(Path name) {
+        String value = name.toString();
+        return value.length() == 2 && isHex(value);
+    }
+
+    private static boolean isHex(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isStoredFile(Path entry) {
+        return Files.isRegularFile(entry) && !entry.getFileName().toString().endsWith(".part");
+    }
+}
@@ -0,0 +1,217 @@
+package com.esatic.assignmentapp.service;
+
+import com.esatic.assignmentapp.model.Class;
+import com.esatic.assignmentapp.model.Subject;
+import com.esatic.assignmentapp.model.Teacher;
+import com.esatic.assignmentapp.model.User;
+import com.esatic.assignmentapp.repository.MongoIds;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.LazyLoadingProxy;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Chargeur de références par lots (pattern DataLoader), limité à la requête HTTP.
+ * <p>
+ * Les mappers enregistrent d'abord toutes les références d'une page ({@link #enqueue(Object)}),
+ * puis la première lecture déclenche une seule requête {@code $in} par collection.
+ * Les documents chargés sont mémorisés jusqu'à la fin de la requête.
+ * <p>
+ * Les entités renvoyées sont des projections partielles (sans mot de passe ni DBRef) :
+ * elles servent uniquement à la construction des DTO et ne doivent jamais être sauvegardées.
+ */
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class ReferenceLoader {
+
+    // Champs publics des projections, partagés avec les connexions GraphQL
+    public static final String[] USER_FIELDS = {"username", "email", "role", "firstName", "lastName", "photoUrl"};
+    public static final String[] SUBJECT_FIELDS = {"name", "imageUrl", "color", "description", "createdAt", "updatedAt"};
+    // Champs publics de l'utilisateur et référence de classe : les étudiants chargés alimentent aussi le cache des utilisateurs
+    private static final String[] STUDENT_FIELDS =
+            {"username", "email", "role", "firstName", "lastName", "photoUrl", "classId"};
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Batch<User> users = new Batch<>(User.class, User::getId, USER_FIELDS);
+    private final Batch<Subject> subjects = new Batch<>(Subject.class, Subject::getId, SUBJECT_FIELDS);
+    private final Batch<Class> classes = new Batch<>(Class.class, Class::getId);
+    private final Batch<Teacher> teachers = new Batch<>(Teacher.class, Teacher::getId);
+    private final Map<String, List<User>> rosters = new HashMap<>();
+
+    /**
+     * Enregistre une référence pour le prochain chargement groupé de sa collection.
+     */
+    public void enqueue(Object reference) {
+        if (reference == null) {
+            return;
+        }
+        if (!(reference instanceof LazyLoadingProxy)) {
+            remember(reference);
+            return;
+        }
+        String id = MongoIds.refId(reference);
+        if (reference instanceof User) {
+            users.enqueue(id);
+        } else if (reference instanceof Subject) {
+            subjects.enqueue(id);
+        } else if (reference instanceof Class) {
+            classes.enqueue(id);
+        } else if (reference instanceof Teacher) {
+            teachers.enqueue(id);
+        }
+    }
+
+    public User user(Object reference) {
+        return reference instanceof LazyLoadingProxy || reference == null
+                ? users.get(MongoIds.refId(reference)) : (User) reference;
+    }
+
+    public Subject subject(Object reference) {
+        return reference instanceof LazyLoadingProxy || reference == null
+                ? subjects.get(MongoIds.refId(reference)) : (Subject) reference;
+    }
+
+    public Class schoolClass(Object reference) {
+        return reference instanceof LazyLoadingProxy || reference == null
+                ? classes.get(MongoIds.refId(reference)) : (Class) reference;
+    }
+
+    public Teacher teacher(Object reference) {
+        return reference instanceof LazyLoadingProxy || reference == null
+                ? teachers.get(MongoIds.refId(reference)) : (Teacher) reference;
+    }
+
+    public Map<String, User> users(Collection<String> ids) {
+        return users.getAll(ids);
+    }
+
+    public Map<String, Subject> subjects(Collection<String> ids) {
+        return subjects.getAll(ids);
+    }
+
+    public Map<String, Class> classes(Collection<String> ids) {
+        return classes.getAll(ids);
+    }
+
+    public Map<String, Teacher> teachers(Collection<String> ids) {
+        return teachers.getAll(ids);
+    }
+
+    /**
+     * Charge les étudiants de plusieurs classes en une seule requête, regroupés par classe.
+     * Le champ {@code classId} est lu brut pour ne pas résoudre la DBRef de chaque étudiant.
+     */
+    public Map<String, List<User>> studentsByClass(Collection<String> classIds) {
+        List<String> missing = classIds.stream()
+                .filter(Objects::nonNull)
+                .filter(id -> !rosters.containsKey(id))
+                .distinct()
+                .toList();
+
+        if (!missing.isEmpty()) {
+            missing.forEach(id -> rosters.put(id, new ArrayList<>()));
+
+            Query query = new Query(Criteria.where("classId.$id").in(missing.stream().map(MongoIds::toObjectId).toList()));
+            query.fields().include(STUDENT_FIELDS);
+
+            for (Document document : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(User.class))) {
+                String classId = MongoIds.rawRefId(document.remove("classId"));
+                User student = mongoTemplate.getConverter().read(User.class, document);
+                rosters.get(classId).add(student);
+                users.remember(student);
+            }
+        }
+
+        Map<String, List<User>> result = new LinkedHashMap<>();
+        classIds.forEach(id -> result.put(id, rosters.getOrDefault(id, List.of())));
+        return result;
+    }
+
+    private void remember(Object entity) {
+        if (entity instanceof User user) {
+            users.remember(user);
+        } else if (entity instanceof Subject subject) {
+            subjects.remember(subject);
+        } else if (entity instanceof Class classEntity) {
+            classes.remember(classEntity);
+        } else if (entity instanceof Teacher teacher) {
+            teachers.remember(teacher);
+        }
+    }
+
+    /**
+     * File d'attente et cache d'une collection : les identifiants enregistrés
+     * sont chargés ensemble à la première lecture.
+     */
+    private final class Batch<T> {
+
+        private final java.lang.Class<T> type;
+        private final Function<T, String> idGetter;
+        private final String[] fields;
+        private final Map<String, T> loaded = new HashMap<>();
+        private final Set<String> pending = new LinkedHashSet<>();
+
+        private Batch(java.lang.Class<T> type, Function<T, String> idGetter, String... fields) {
+            this.type = type;
+            this.idGetter = idGetter;
+            this.fields = fields;
+        }
+
+        void enqueue(String id) {
+            if (id != null && !loaded.containsKey(id)) {
+                pending.add(id);
+            }
+        }
+
+        void remember(T entity) {
+            if (entity != null && idGetter.apply(entity) != null) {
+                loaded.putIfAbsent(idGetter.apply(entity), entity);
+            }
+        }
+
+        T get(String id) {
+            if (id == null) {
+                return null;
+            }
+            enqueue(id);
+            flush();
+            return loaded.get(id);
+        }
+
+        Map<String, T> getAll(Collection<String> ids) {
+            ids.forEach(this::enqueue);
+            flush();
+            Map<String, T> result = new LinkedHashMap<>();
+            ids.stream()
+                    .filter(id -> id != null && loaded.get(id) != null)
+                    .forEach(id -> result.put(id, loaded.get(id)));
+            return result;
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<String> ids = new ArrayList<>(pending);
+            pending.clear();
+
+            Query query = new Query(Criteria.where("_id").in(ids));
+            if (fields.length > 0) {
+                query.fields().include(fields);
+            }
+            mongoTemplate.find(query, type).forEach(entity -> loaded.put(idGetter.apply(entity), entity));
+
+            // Mémoriser aussi les absences pour ne pas réinterroger la base
+            ids.forEach(id -> loaded.putIfAbsent(id, null));
+        }
+    }
+}
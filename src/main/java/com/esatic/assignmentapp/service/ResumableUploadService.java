@@ -0,0 +1,210 @@
+package com.esatic.assignmentapp.service;
+
+import com.esatic.assignmentapp.dto.StoredFileDTO;
+import com.esatic.assignmentapp.dto.UploadSessionDTO;
+import com.esatic.assignmentapp.exception.ConflictException;
+import com.esatic.assignmentapp.exception.PayloadTooLargeException;
+import com.esatic.assignmentapp.exception.ResourceNotFoundException;
+import com.esatic.assignmentapp.model.UploadSession;
+import com.esatic.assignmentapp.repository.AssignmentRepository;
+import com.esatic.assignmentapp.repository.UploadSessionRepository;
+import com.esatic.assignmentapp.security.JwtPrincipal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Uploads reprenables (protocole inspiré de tus) pour les pièces jointes des devoirs :
+ * création de la session, envoi de morceaux à un offset donné, consultation de l'offset, finalisation.
+ * <p>
+ * Chaque morceau est écrit à sa position dans le fichier partiel ({@link FileChannel#write(ByteBuffer, long)}) ;
+ * l'offset de la session n'avance que par compare-and-set, un envoi concurrent au même offset reçoit un 409.
+ * Un envoi interrompu fait tout de même avancer l'offset jusqu'au dernier octet écrit : le client reprend de là.
+ * Les sessions expirent après {@code app.uploads.resumable.ttl} sans activité.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path partialRoot = Paths.get("uploads/partial");
+    private final UploadSessionRepository uploadSessionRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final FileService fileService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.uploads.resumable.ttl:24h}")
+    private Duration ttl;
+
+    public UploadSessionDTO create(String assignmentId, String name, String contentType, long length, JwtPrincipal principal)
+            throws IOException {
+        if (length <= 0) {
+            throw new IllegalArgumentException("La taille du fichier doit être positive");
+        }
+        String mediaType = fileService.checkUpload(contentType, length, "assignment");
+        if (!assignmentRepository.existsById(assignmentId)) {
+            throw new ResourceNotFoundException("Assignment", "id", assignmentId);
+        }
+
+        Date now = new Date();
+        UploadSession session = uploadSessionRepository.save(UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .assignmentId(assignmentId)
+                .userId(principal.getId())
+                .name(name)
+                .contentType(mediaType)
+                .length(length)
+                .offset(0)
+                .createdAt(now)
+                .expiresAt(new Date(now.getTime() + ttl.toMillis()))
+                .build());
+
+        Files.createDirectories(partialRoot);
+        Files.createFile(partPath(session.getId()));
+        return toDTO(session);
+    }
+
+    public UploadSessionDTO status(String id, JwtPrincipal principal) {
+        return toDTO(ownedSession(id, principal));
+    }
+
+    /**
+     * Écrit un morceau à {@code offset} ; renvoie le nouvel offset.
+     */
+    public long appendChunk(String id, long offset, InputStream in, JwtPrincipal principal) throws IOException {
+        UploadSession session = ownedSession(id, principal);
+        if (offset != session.getOffset()) {
+            throw new ConflictException("Offset attendu : " + session.getOffset());
+        }
+
+        long position = offset;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(partPath(id), StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = in.read(buffer.array())) != -1) {
+                if (position + read > session.getLength()) {
+                    throw new PayloadTooLargeException("Le morceau dépasse la taille annoncée de l'upload");
+                }
+                buffer.limit(read).position(0);
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                buffer.clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Connexion coupée en cours de morceau : les octets déjà écrits restent acquis pour la reprise
+            if (position > offset) {
+                advance(id, offset, position);
+            }
+            throw e;
+        }
+
+        UploadSession updated = advance(id, offset, position);
+        if (updated == null) {
+            throw new ConflictException("Un autre envoi a modifié cet upload, consultez l'offset courant");
+        }
+        return updated.getOffset();
+    }
+
+    // L'offset n'avance que s'il n'a pas bougé depuis la lecture de la session ; null sinon
+    private UploadSession advance(String id, long expectedOffset, long position) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(id).and("offset").is(expectedOffset)),
+                new Update().set("offset", position).set("expiresAt", new Date(System.currentTimeMillis() + ttl.toMillis())),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+    }
+
+    /**
+     * Upload complet : le fichier est placé parmi les pièces jointes et rattaché au devoir en une seule mise à jour.
+     */
+    public StoredFileDTO complete(String id, JwtPrincipal principal) throws IOException {
+        UploadSession session = ownedSession(id, principal);
+        if (session.getOffset() != session.getLength()) {
+            throw new ConflictException("Upload incomplet : " + session.getOffset() + " / " + session.getLength() + " octets");
+        }
+
+        StoredFileDTO stored = fileService.storeCompletedFile(partPath(id), session.getName(), session.getContentType());
+        try {
+            fileService.addFileToAssignment(session.getAssignmentId(), stored.getFileUrl());
+        } catch (ResourceNotFoundException e) {
+            fileService.deleteFile(stored.getFileUrl());
+            throw e;
+        } finally {
+            uploadSessionRepository.deleteById(id);
+        }
+        return stored;
+    }
+
+    public void abort(String id, JwtPrincipal principal) throws IOException {
+        ownedSession(id, principal);
+        uploadSessionRepository.deleteById(id);
+        Files.deleteIfExists(partPath(id));
+    }
+
+    /**
+     * Fichiers partiels sans activité depuis {@code ttl} (la session Mongo a expiré par index TTL).
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.resumable.cleanup-ms:3600000}")
+    public void purgeStaleUploads() throws IOException {
+        if (!Files.isDirectory(partialRoot)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        try (Stream<Path> files = Files.list(partialRoot)) {
+            for (Path file : files.toList()) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                    log.debug("Upload partiel expiré supprimé : {}", file.getFileName());
+                }
+            }
+        }
+    }
+
+    private UploadSession ownedSession(String id, JwtPrincipal principal) {
+        UploadSession session = uploadSessionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload", "id", id));
+        if (!session.getUserId().equals(principal.getId())) {
+            throw new AccessDeniedException("Cet upload appartient à un autre utilisateur");
+        }
+        return session;
+    }
+
+    private Path partPath(String id) {
+        return partialRoot.resolve(id + ".part");
+    }
+
+    private static UploadSessionDTO toDTO(UploadSession session) {
+        return UploadSessionDTO.builder()
+                .id(session.getId())
+                .assignmentId(session.getAssignmentId())
+                .name(session.getName())
+                .length(session.getLength())
+                .offset(session.getOffset())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.esatic.assignmentapp.service;
+
+/**
+ * Fichier prêt à être servi.
+ *
+ * @param immutable contenu adressé par une URL qui ne change jamais de contenu (mise en cache définitive)
+ * @param length    taille du contenu d'origine (décompressé)
+ */
+public record ServedFile(StoredObject object, String name, String contentType, String etag, boolean immutable,
+                         long length) {
+}
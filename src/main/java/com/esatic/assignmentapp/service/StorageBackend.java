@@ -0,0 +1,67 @@
+package com.esatic.assignmentapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Stockage des contenus d'upload, choisi par {@code app.storage.backend} :
+ * {@code local} (système de fichiers, un seul nœud ou volume partagé) ou {@code gridfs} (MongoDB, plusieurs nœuds).
+ * <p>
+ * Les objets sont désignés par une clé plate (empreinte SHA-256, éventuellement suffixée) et ne sont jamais
+ * modifiés en place : une écriture remplace l'objet entier.
+ */
+public interface StorageBackend {
+
+    /**
+     * Écrit l'objet en flux ; il n'est visible qu'une fois le flux entièrement lu.
+     */
+    void write(String key, InputStream content) throws IOException;
+
+    /**
+     * Importe un fichier local complet ; le fichier source est consommé (déplacé ou supprimé).
+     */
+    default void importFile(String key, Path source) throws IOException {
+        try (InputStream in = Files.newInputStream(source)) {
+            write(key, in);
+        }
+        Files.delete(source);
+    }
+
+    /**
+     * @throws java.nio.file.NoSuchFileException si l'objet n'existe pas
+     */
+    InputStream read(String key) throws IOException;
+
+    /**
+     * Octets {@code [start, end)} de l'objet, sans lire ce qui précède quand le stockage le permet.
+     *
+     * @throws java.nio.file.NoSuchFileException si l'objet n'existe pas
+     */
+    InputStream read(String key, long start, long end) throws IOException;
+
+    /**
+     * Taille de l'objet, vide s'il n'existe pas.
+     */
+    OptionalLong size(String key) throws IOException;
+
+    /**
+     * @return {@code true} si l'objet existait
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Supprime les objets dont la clé commence par {@code prefix} (variantes d'un contenu).
+     */
+    void deleteByPrefix(String prefix) throws IOException;
+
+    /**
+     * Fichier local de l'objet, pour un envoi sans copie ; vide si le stockage n'est pas local.
+     */
+    default Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,82 @@
+package com.esatic.assignmentapp.service;
+
+import com.esatic.assignmentapp.dto.ShardingReportDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Migration en ligne des répertoires à plat vers la disposition répartie par préfixe ({@link LocalStorageBackend}) :
+ * contenus du stockage local et fichiers antérieurs de {@code uploads/assignments} et {@code uploads/profiles}.
+ * <p>
+ * Au plus {@code batch-size} fichiers sont déplacés toutes les {@code pause-ms} : le débit disque consommé reste
+ * borné et les fichiers restent servis pendant le déplacement. La migration s'arrête d'elle-même quand
+ * un lot n'est pas plein ; elle reprend au redémarrage là où elle s'était arrêtée.
+ */
+@Component
+@Slf4j
+public class StorageLayoutMigration {
+
+    private final List<LocalStorageBackend> backends = new ArrayList<>();
+    private final AtomicLong moved = new AtomicLong();
+    private volatile boolean finished;
+
+    @Value("${app.storage.local.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.storage.local.migration.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.storage.local.migration.pause-ms:1000}")
+    private long pauseMs;
+
+    public StorageLayoutMigration(StorageBackend storage, FileService fileService) {
+        if (storage instanceof LocalStorageBackend local) {
+            backends.add(local);
+        }
+        backends.addAll(fileService.legacyStorages());
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.local.migration.pause-ms:1000}",
+            initialDelayString = "${app.storage.local.migration.pause-ms:1000}")
+    public void migrateBatch() {
+        if (!enabled || finished) {
+            return;
+        }
+        int remaining = batchSize;
+        try {
+            for (LocalStorageBackend backend : backends) {
+                if (remaining == 0) {
+                    break;
+                }
+                remaining -= backend.shardFlatFiles(remaining);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Répartition des uploads interrompue, nouvel essai au prochain lot", e);
+            return;
+        }
+        long total = moved.addAndGet(batchSize - remaining);
+        if (remaining > 0) {
+            finished = true;
+            if (total > 0) {
+                log.info("Répartition des uploads terminée : {} fichier(s) déplacé(s)", total);
+            }
+        }
+    }
+
+    public ShardingReportDTO report() {
+        return ShardingReportDTO.builder()
+                .enabled(enabled)
+                .finished(finished)
+                .moved(moved.get())
+                .batchSize(batchSize)
+                .pauseMs(pauseMs)
+                .build();
+    }
+}
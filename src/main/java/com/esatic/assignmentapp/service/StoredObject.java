@@ -0,0 +1,27 @@
+package com.esatic.assignmentapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Objet présent dans un {@link StorageBackend}.
+ *
+ * @param length   taille stockée
+ * @param encoding {@code gzip} si l'objet est stocké compressé, {@code null} sinon
+ */
+public record StoredObject(StorageBackend storage, String key, long length, String encoding) {
+
+    public InputStream open() throws IOException {
+        return storage.read(key);
+    }
+
+    public InputStream open(long start, long end) throws IOException {
+        return storage.read(key, start, end);
+    }
+
+    public Optional<Path> localFile() {
+        return storage.localFile(key);
+    }
+}
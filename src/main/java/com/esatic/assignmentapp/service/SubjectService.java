@@ -1,16 +1,20 @@
 package com.esatic.assignmentapp.service;
 
+import com.esatic.assignmentapp.dto.PaginatedResponse;
 import com.esatic.assignmentapp.dto.SubjectDTO;
 import com.esatic.assignmentapp.dto.SubjectResponseDTO;
 import com.esatic.assignmentapp.exception.ResourceNotFoundException;
 import com.esatic.assignmentapp.model.Subject;
 import com.esatic.assignmentapp.model.Teacher;
+import com.esatic.assignmentapp.repository.MongoIds;
 import com.esatic.assignmentapp.repository.SubjectRepository;
 import com.esatic.assignmentapp.repository.TeacherRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,9 +26,23 @@ public class SubjectService {
 
     private final SubjectRepository subjectRepository;
     private final TeacherRepository teacherRepository;
+    private final ReferenceLoader referenceLoader;
+    private final CascadeService cascadeService;
+    private final CollectionPager collectionPager;
 
-    public List<SubjectResponseDTO> getAllSubjects() {
-        return subjectRepository.findAll().stream()
+    public PaginatedResponse<SubjectResponseDTO> getAllSubjects(int page, int limit, String after) {
+        return collectionPager.page(Subject.class, null, Sort.by(Sort.Direction.ASC, "name"),
+                page, limit, after, this::convertToDTOs);
+    }
+
+    public void exportSubjects(OutputStream out) {
+        collectionPager.streamNdjson(Subject.class, null, this::convertToDTOs, out);
+    }
+
+    // Les enseignants du lot sont chargés en une seule requête
+    private List<SubjectResponseDTO> convertToDTOs(List<Subject> subjects) {
+        subjects.forEach(subject -> referenceLoader.enqueue(subject.getTeacher()));
+        return subjects.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -36,13 +54,14 @@ public class SubjectService {
     }
 
     private SubjectResponseDTO convertToDTO(Subject subject) {
+        Teacher teacher = referenceLoader.teacher(subject.getTeacher());
+
         return SubjectResponseDTO.builder()
                 .id(subject.getId())
                 .name(subject.getName())
                 .imageUrl(subject.getImageUrl())
-                .teacherId(subject.getTeacher() != null ? subject.getTeacher().getId() : null)
-                .teacherName(subject.getTeacher() != null ?
-                        subject.getTeacher().getFirstName() + " " + subject.getTeacher().getLastName() : null)
+                .teacherId(MongoIds.refId(subject.getTeacher()))
+                .teacherName(teacher != null ? teacher.getFirstName() + " " + teacher.getLastName() : null)
                 .color(subject.getColor())
                 .description(subject.getDescription())
                 .createdAt(subject.getCreatedAt())
@@ -96,8 +115,13 @@ public class SubjectService {
                 .orElseThrow(() -> new ResourceNotFoundException("Subject", "id", id));
     }
 
-    public void deleteSubject(String id) {
-        Subject subject = getSubjectEntityById(id);
-        subjectRepository.delete(subject);
+    /**
+     * @return {@code true} si le retrait des références se poursuit en arrière-plan
+     */
+    public boolean deleteSubject(String id) {
+        if (!subjectRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Subject", "id", id);
+        }
+        return cascadeService.deleteSubject(id);
     }
 }
\ No newline at end of file
@@ -1,18 +1,25 @@
 package com.esatic.assignmentapp.service;
 
+import com.esatic.assignmentapp.dto.PaginatedResponse;
 import com.esatic.assignmentapp.dto.SubjectInfoDTO;
 import com.esatic.assignmentapp.dto.TeacherDTO;
 import com.esatic.assignmentapp.dto.TeacherResponseDTO;
 import com.esatic.assignmentapp.exception.ResourceNotFoundException;
+import com.esatic.assignmentapp.model.Subject;
 import com.esatic.assignmentapp.model.Teacher;
 import com.esatic.assignmentapp.repository.TeacherRepository;
-import com.esatic.assignmentapp.repository.SubjectRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,18 +27,22 @@ import java.util.stream.Collectors;
 public class TeacherService {
 
     private final TeacherRepository teacherRepository;
-    private final SubjectRepository subjectRepository;
+    private final ReferenceLoader referenceLoader;
+    private final CollectionPager collectionPager;
 
-    public List<TeacherResponseDTO> getAllTeachers() {
-        return teacherRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+    public PaginatedResponse<TeacherResponseDTO> getAllTeachers(int page, int limit, String after) {
+        return collectionPager.page(Teacher.class, null, Sort.by(Sort.Direction.ASC, "lastName", "firstName"),
+                page, limit, after, this::convertToDTOs);
+    }
+
+    public void exportTeachers(OutputStream out) {
+        collectionPager.streamNdjson(Teacher.class, null, this::convertToDTOs, out);
     }
 
     public TeacherResponseDTO getTeacherById(String id) {
-        return teacherRepository.findById(id)
-                .map(this::convertToDTO)
+        Teacher teacher = teacherRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Teacher", "id", id));
+        return convertToDTO(teacher);
     }
 
     @Transactional
@@ -71,18 +82,39 @@ public class TeacherService {
     }
 
     private TeacherResponseDTO convertToDTO(Teacher teacher) {
+        return convertToDTOs(List.of(teacher)).get(0);
+    }
+
+    // Les matières de tous les enseignants sont chargées en une seule requête projetée ($in du ReferenceLoader),
+    // puis jointes en mémoire
+    private List<TeacherResponseDTO> convertToDTOs(List<Teacher> teachers) {
+        Set<String> subjectIds = teachers.stream()
+                .map(Teacher::getSubjects)
+                .filter(Objects::nonNull)
+                .flatMap(Collection::stream)
+                .collect(Collectors.toSet());
+        Map<String, SubjectInfoDTO> subjects = referenceLoader.subjects(subjectIds).values().stream()
+                .collect(Collectors.toMap(Subject::getId, subject -> new SubjectInfoDTO(
+                        subject.getId(),
+                        subject.getName(),
+                        subject.getImageUrl(),
+                        subject.getColor())));
+
+        return teachers.stream()
+                .map(teacher -> toResponseDTO(teacher, subjects))
+                .collect(Collectors.toList());
+    }
+
+    private TeacherResponseDTO toResponseDTO(Teacher teacher, Map<String, SubjectInfoDTO> subjects) {
         return TeacherResponseDTO.builder()
                 .id(teacher.getId())
                 .firstName(teacher.getFirstName())
                 .lastName(teacher.getLastName())
                 .email(teacher.getEmail())
                 .photoUrl(teacher.getPhotoUrl())
-                .subjects(subjectRepository.findAllById(teacher.getSubjects()).stream()
-                        .map(subject -> new SubjectInfoDTO(
-                                subject.getId(),
-                                subject.getName(),
-                                subject.getImageUrl(),
-                                subject.getColor()))
+                .subjects(teacher.getSubjects() == null ? List.of() : teacher.getSubjects().stream()
+                        .map(subjects::get)
+                        .filter(Objects::nonNull)
                         .collect(Collectors.toList()))
                 .createdAt(teacher.getCreatedAt())
                 .updatedAt(teacher.getUpdatedAt())
@@ -0,0 +1,223 @@
+package com.esatic.assignmentapp.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Miniatures carrées des images (photos de profil), produites avec ImageIO seul.
+ * <p>
+ * Les variantes sont rangées à côté du blob d'origine ({@code <sha256>-<taille>.<format>}) : un même contenu
+ * n'est réduit qu'une fois, quel que soit le nombre d'utilisateurs qui le partagent.
+ * Elles sont générées sur un pool borné, en arrière-plan à l'upload et à la demande si une variante manque ;
+ * les demandes simultanées d'une même variante partagent le calcul. Une demande n'attend pas plus de
+ * {@code render-timeout-ms} et reçoit l'original si le pool est saturé, si le délai est dépassé
+ * (la variante sera prête pour la suivante) ou si l'image ne peut pas être lue.
+ */
+@Service
+@Slf4j
+public class ThumbnailService {
+
+    private final BlobStore blobStore;
+    private final ThreadPoolExecutor executor;
+    private final List<Integer> sizes;
+    private final long maxPixels;
+    private final long renderTimeoutMs;
+    private final ConcurrentHashMap<String, CompletableFuture<StoredObject>> inFlight = new ConcurrentHashMap<>();
+
+    public ThumbnailService(BlobStore blobStore,
+                            @Value("${app.uploads.thumbnails.sizes:64,128,256}") List<Integer> sizes,
+                            @Value("${app.uploads.thumbnails.threads:2}") int threads,
+                            @Value("${app.uploads.thumbnails.queue-capacity:200}") int queueCapacity,
+                            @Value("${app.uploads.thumbnails.max-pixels:40000000}") long maxPixels,
+                            @Value("${app.uploads.thumbnails.render-timeout-ms:2000}") long renderTimeoutMs) {
+        this.blobStore = blobStore;
+        this.sizes = List.copyOf(sizes);
+        this.maxPixels = maxPixels;
+        this.renderTimeoutMs = renderTimeoutMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnails-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean supports(String contentType) {
+        return contentType != null && contentType.startsWith("image/");
+    }
+
+    public boolean isAllowedSize(int size) {
+        return sizes.contains(size);
+    }
+
+    /**
+     * Génère toutes les tailles en arrière-plan ; ignoré si la file est pleine (génération à la demande ensuite).
+     */
+    public void generateAsync(String sha256, String contentType) {
+        if (!supports(contentType)) {
+            return;
+        }
+        String format = formatOf(contentType);
+        try {
+            sizes.forEach(size -> schedule(sha256, size, format));
+        } catch (RejectedExecutionException e) {
+            log.debug("File des miniatures pleine, {} sera réduit à la demande", sha256);
+        }
+    }
+
+    /**
+     * Variante stockée, générée si nécessaire ; vide si l'original doit être servi à la place.
+     */
+    public Optional<StoredObject> variant(String sha256, String contentType, int size) {
+        String format = formatOf(contentType);
+        try {
+            StoredObject stored = blobStore.locateVariant(sha256, size, format);
+            if (stored != null) {
+                return Optional.of(stored);
+            }
+            return Optional.ofNullable(schedule(sha256, size, format).get(renderTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            log.debug("File des miniatures pleine, original servi pour {}", sha256);
+        } catch (TimeoutException e) {
+            log.debug("Miniature {} de {} trop longue à générer, original servi", size, sha256);
+        } catch (IOException | ExecutionException e) {
+            log.warn("Miniature {} de {} indisponible, original servi", size, sha256, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Optional.empty();
+    }
+
+    // Calcul partagé d'une variante sur le pool ; RejectedExecutionException si la file est pleine
+    private CompletableFuture<StoredObject> schedule(String sha256, int size, String format) {
+        String target = sha256 + "-" + size + "." + format;
+        CompletableFuture<StoredObject> created = new CompletableFuture<>();
+        CompletableFuture<StoredObject> existing = inFlight.putIfAbsent(target, created);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    StoredObject stored = blobStore.locateVariant(sha256, size, format);
+                    created.complete(stored != null ? stored : render(sha256, size, format));
+                } catch (IOException | RuntimeException e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(target, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(target, created);
+            created.cancel(false);
+            throw e;
+        }
+        return created;
+    }
+
+    public String mediaTypeOf(String contentType) {
+        return "png".equals(formatOf(contentType)) ? "image/png" : "image/jpeg";
+    }
+
+    public static String formatOf(String contentType) {
+        // PNG pour conserver la transparence, JPEG pour les photos
+        return "image/jpeg".equals(contentType) ? "jpg" : "png";
+    }
+
+    private StoredObject render(String sha256, int size, String format) throws IOException {
+        BufferedImage original = decode(sha256);
+        if (original == null) {
+            return null;
+        }
+
+        // Recadrage carré centré puis réductions successives de moitié : bonne qualité sans filtre coûteux
+        int side = Math.min(original.getWidth(), original.getHeight());
+        BufferedImage current = original.getSubimage(
+                (original.getWidth() - side) / 2, (original.getHeight() - side) / 2, side, side);
+        boolean alpha = "png".equals(format);
+        while (current.getWidth() / 2 >= size) {
+            current = scale(current, current.getWidth() / 2, alpha);
+        }
+        current = scale(current, size, alpha);
+
+        Path temp = blobStore.newTempFile();
+        if (!ImageIO.write(current, "jpg".equals(format) ? "jpeg" : "png", temp.toFile())) {
+            Files.deleteIfExists(temp);
+            return null;
+        }
+        return blobStore.storeVariant(sha256, size, format, temp);
+    }
+
+    // Dimensions lues avant le décodage complet : une image démesurée n'est pas décompressée
+    // Lecture par le BlobStore : le contenu peut être stocké compressé
+    private BufferedImage decode(String sha256) throws IOException {
+        try (InputStream source = blobStore.open(sha256);
+             ImageInputStream input = ImageIO.createImageInputStream(source)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    log.debug("Image trop grande pour une miniature : {}", sha256);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int side, boolean alpha) {
+        BufferedImage scaled = new BufferedImage(side, side, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, side, side, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
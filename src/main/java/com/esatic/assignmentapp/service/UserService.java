@@ -1,41 +1,73 @@
 package com.esatic.assignmentapp.service;
 
+import com.esatic.assignmentapp.dto.ClassInfoDTO;
+import com.esatic.assignmentapp.dto.PaginatedResponse;
+import com.esatic.assignmentapp.dto.SubjectInfoDTO;
+import com.esatic.assignmentapp.dto.UserResponseDTO;
+import com.esatic.assignmentapp.exception.ResourceNotFoundException;
 import com.esatic.assignmentapp.model.Class;
 import com.esatic.assignmentapp.model.Subject;
 import com.esatic.assignmentapp.model.User;
 import com.esatic.assignmentapp.repository.ClassRepository;
-import com.esatic.assignmentapp.repository.SubjectRepository;
+import com.esatic.assignmentapp.repository.MongoIds;
 import com.esatic.assignmentapp.repository.UserRepository;
+import com.esatic.assignmentapp.security.TokenVersionRegistry;
+import org.bson.Document;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final ClassRepository classRepository;
-    private final SubjectRepository subjectRepository;
+    private final ReferenceLoader referenceLoader;
+    private final CascadeService cascadeService;
+    private final CollectionPager collectionPager;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final MongoTemplate mongoTemplate;
 
     public UserService(
             UserRepository userRepository,
             @Lazy PasswordEncoder passwordEncoder,
             ClassRepository classRepository,
-            SubjectRepository subjectRepository) {
+            ReferenceLoader referenceLoader,
+            CascadeService cascadeService,
+            CollectionPager collectionPager,
+            TokenVersionRegistry tokenVersionRegistry,
+            MongoTemplate mongoTemplate) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.classRepository = classRepository;
-        this.subjectRepository = subjectRepository;
+        this.referenceLoader = referenceLoader;
+        this.cascadeService = cascadeService;
+        this.collectionPager = collectionPager;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Override
@@ -44,82 +76,237 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé: " + username));
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    /**
+     * Réencodage transparent à la connexion des hachages sans préfixe {@code {bcrypt}} et de ceux d'un coût
+     * inférieur au coût courant ; un coût plus élevé est conservé (voir {@code TunableBCryptPasswordEncoder}).
+     * Le mot de passe est inchangé : les tokens émis restent valides.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = (User) userDetails;
+        if (userRepository.replacePasswordHash(user.getId(), user.getPassword(), newPassword)) {
+            user.setPassword(newPassword);
+        }
+        return user;
     }
 
-    public User getUserById(String id) {
-        return userRepository.findById(id)
+    // Lectures : documents bruts sans mot de passe, références résolues par lot en (id, nom)
+    public PaginatedResponse<UserResponseDTO> getAllUsers(int page, int limit, String after) {
+        return collectionPager.page(User.class, Document.class, null, Sort.by(Sort.Direction.ASC, "lastName", "firstName"),
+                page, limit, after, this::toResponseDTOs, "password");
+    }
+
+    public void exportUsers(OutputStream out) {
+        collectionPager.streamNdjson(User.class, Document.class, null, this::toResponseDTOs, out, "password");
+    }
+
+    public UserResponseDTO getUserResponseById(String id) {
+        return userRepository.findViewById(id)
+                .map(document -> toResponseDTOs(List.of(document)).get(0))
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'id: " + id));
     }
 
-    public User saveUser(User user) {
-        return userRepository.save(user);
+    /**
+     * Modèle de lecture d'un utilisateur déjà chargé (après écriture ou authentification).
+     */
+    public UserResponseDTO toResponseDTO(User user) {
+        String classId = MongoIds.refId(user.getClassId());
+        List<String> subjectIds = user.getTeachingSubjects() == null ? null : user.getTeachingSubjects().stream()
+                .map(MongoIds::refId)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return UserResponseDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole())
+                .photoUrl(user.getPhotoUrl())
+                .enabled(user.isEnabled())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .classInfo(toClassInfo(classId == null ? null : referenceLoader.classes(List.of(classId)).get(classId)))
+                .teachingSubjects(toSubjectInfos(subjectIds, subjectIds == null ? Map.of() : referenceLoader.subjects(subjectIds)))
+                .build();
     }
 
-    public void deleteUser(String id) {
-        userRepository.deleteById(id);
+    private List<UserResponseDTO> toResponseDTOs(List<Document> documents) {
+        Set<String> classIds = new HashSet<>();
+        Set<String> subjectIds = new HashSet<>();
+        documents.forEach(document -> {
+            String classId = MongoIds.rawRefId(document.get("classId"));
+            if (classId != null) {
+                classIds.add(classId);
+            }
+            List<String> teaching = rawSubjectIds(document);
+            if (teaching != null) {
+                subjectIds.addAll(teaching);
+            }
+        });
+        // Une requête pour toutes les classes et une pour toutes les matières du lot
+        Map<String, Class> classes = classIds.isEmpty() ? Map.of() : referenceLoader.classes(classIds);
+        Map<String, Subject> subjects = subjectIds.isEmpty() ? Map.of() : referenceLoader.subjects(subjectIds);
+
+        return documents.stream()
+                .map(document -> UserResponseDTO.builder()
+                        .id(document.get("_id").toString())
+                        .username(document.getString("username"))
+                        .email(document.getString("email"))
+                        .firstName(document.getString("firstName"))
+                        .lastName(document.getString("lastName"))
+                        .role(document.getString("role"))
+                        .photoUrl(document.getString("photoUrl"))
+                        .enabled(document.getBoolean("enabled", true))
+                        .createdAt(document.getDate("createdAt"))
+                        .updatedAt(document.getDate("updatedAt"))
+                        .classInfo(toClassInfo(lookup(classes, MongoIds.rawRefId(document.get("classId")))))
+                        .teachingSubjects(toSubjectInfos(rawSubjectIds(document), subjects))
+                        .build())
+                .toList();
     }
 
-    public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+    private static List<String> rawSubjectIds(Document document) {
+        if (document.get("teachingSubjects") == null) {
+            return null;
+        }
+        return document.getList("teachingSubjects", Object.class).stream()
+                .map(MongoIds::rawRefId)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
-    public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+    private static <T> T lookup(Map<String, T> values, String id) {
+        return id == null ? null : values.get(id);
     }
 
-    public User updateProfile(String userId, Map<String, Object> payload) {
-        User user = getUserById(userId);
+    private static ClassInfoDTO toClassInfo(Class classEntity) {
+        return classEntity == null ? null : new ClassInfoDTO(classEntity.getId(), classEntity.getName(), classEntity.getYear());
+    }
 
-        if (payload.containsKey("firstName")) {
-            user.setFirstName((String) payload.get("firstName"));
+    private static List<SubjectInfoDTO> toSubjectInfos(Collection<String> subjectIds, Map<String, Subject> subjects) {
+        if (subjectIds == null) {
+            return null;
         }
+        return subjectIds.stream()
+                .map(subjects::get)
+                .filter(Objects::nonNull)
+                .map(subject -> new SubjectInfoDTO(subject.getId(), subject.getName(), subject.getImageUrl(), subject.getColor()))
+                .toList();
+    }
 
-        if (payload.containsKey("lastName")) {
-            user.setLastName((String) payload.get("lastName"));
+    public User getUserById(String id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'id: " + id));
+    }
+
+    /**
+     * Insertion en un seul aller-retour : l'unicité du nom d'utilisateur et de l'email
+     * (insensible à la casse) est garantie par les index.
+     */
+    public User createUser(User user) {
+        try {
+            return userRepository.insert(user);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUser(e, "Cette adresse email est déjà utilisée");
         }
+    }
 
-        if (payload.containsKey("email")) {
-            String newEmail = (String) payload.get("email");
-            // Vérifier si l'email n'est pas déjà utilisé par un autre utilisateur
-            if (!user.getEmail().equals(newEmail) && existsByEmail(newEmail)) {
-                throw new IllegalArgumentException("Cet email est déjà utilisé par un autre compte");
-            }
-            user.setEmail(newEmail);
+    public User saveUser(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUser(e, "Cette adresse email est déjà utilisée");
+        }
+    }
+
+    private static IllegalArgumentException duplicateUser(DuplicateKeyException e, String emailMessage) {
+        String message = e.getMessage();
+        if (message != null && message.contains(User.EMAIL_INDEX)) {
+            return new IllegalArgumentException(emailMessage);
+        }
+        return new IllegalArgumentException("Ce nom d'utilisateur est déjà pris");
+    }
+
+    /**
+     * Supprime l'utilisateur et ses devoirs en une seule opération groupée.
+     *
+     * @return {@code true} si la suppression des devoirs se poursuit en arrière-plan
+     */
+    public boolean deleteUser(String id) {
+        if (!userRepository.existsById(id)) {
+            throw new ResourceNotFoundException("User", "id", id);
         }
+        tokenVersionRegistry.revoke(id);
+        return cascadeService.deleteUser(id);
+    }
+
+    /**
+     * Invalide les tokens déjà émis (changement de rôle, de mot de passe ou désactivation).
+     * À appeler après la sauvegarde de l'utilisateur.
+     */
+    public void revokeTokens(String id) {
+        tokenVersionRegistry.bump(id);
+    }
 
-        if (payload.containsKey("photoUrl")) {
-            user.setPhotoUrl((String) payload.get("photoUrl"));
+    /**
+     * Met à jour en un seul {@code findAndModify} les champs présents dans {@code payload}.
+     * Le rôle est celui du token : un changement de rôle invalide les tokens émis auparavant.
+     */
+    public User updateProfile(String userId, String role, Map<String, Object> payload) {
+        Update update = new Update().set("updatedAt", new Date());
+
+        for (String field : List.of("firstName", "lastName", "email", "photoUrl")) {
+            if (payload.containsKey(field)) {
+                // Unicité de l'email vérifiée par l'index lors de la mise à jour
+                update.set(field, payload.get(field));
+            }
         }
 
-        if (payload.containsKey("classId") && "STUDENT".equalsIgnoreCase(user.getRole())) {
+        if (payload.containsKey("classId") && "STUDENT".equalsIgnoreCase(role)) {
             String classId = (String) payload.get("classId");
             Class studentClass = classRepository.findById(classId)
                     .orElseThrow(() -> new IllegalArgumentException("Classe non trouvée avec l'id: " + classId));
-            user.setClassId(studentClass);
+            update.set("classId", studentClass);
         }
 
-        if (payload.containsKey("teachingSubjects") && "TEACHER".equalsIgnoreCase(user.getRole())) {
+        if (payload.containsKey("teachingSubjects") && "TEACHER".equalsIgnoreCase(role)) {
             List<String> subjectIds = (List<String>) payload.get("teachingSubjects");
+            // Une seule requête $in pour toutes les matières
+            Map<String, Subject> found = referenceLoader.subjects(subjectIds);
             List<Subject> subjects = new ArrayList<>();
 
             for (String subjectId : subjectIds) {
-                Subject subject = subjectRepository.findById(subjectId)
-                        .orElseThrow(() -> new IllegalArgumentException("Matière non trouvée avec l'id: " + subjectId));
+                Subject subject = found.get(subjectId);
+                if (subject == null) {
+                    throw new IllegalArgumentException("Matière non trouvée avec l'id: " + subjectId);
+                }
                 subjects.add(subject);
             }
 
-            user.setTeachingSubjects(subjects);
+            update.set("teachingSubjects", subjects);
         }
 
-        // Mettre à jour la date de modification
-        user.setUpdatedAt(new Date());
-
-        return userRepository.save(user);
+        User user;
+        try {
+            user = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(userId)), update,
+                    FindAndModifyOptions.options().returnNew(true), User.class);
+        } catch (DuplicateKeyException e) {
+            throw duplicateUser(e, "Cet email est déjà utilisé par un autre compte");
+        }
+        if (user == null) {
+            throw new UsernameNotFoundException("Utilisateur non trouvé avec l'id: " + userId);
+        }
+        return user;
     }
 
-    public void changePassword(String userId, String currentPassword, String newPassword) {
+    /**
+     * Change le mot de passe et invalide les tokens existants.
+     *
+     * @return l'utilisateur avec sa nouvelle version de token, pour émettre le token qui remplace l'actuel
+     */
+    public User changePassword(String userId, String currentPassword, String newPassword) {
         User user = getUserById(userId);
 
         // Vérifier si le mot de passe actuel est correct
@@ -134,5 +321,7 @@ public class UserService implements UserDetailsService {
         user.setUpdatedAt(new Date());
 
         userRepository.save(user);
+        user.setTokenVersion(tokenVersionRegistry.bump(userId));
+        return user;
     }
 }
\ No newline at end of file
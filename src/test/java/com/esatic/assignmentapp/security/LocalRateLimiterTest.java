@@ -0,0 +1,65 @@
+package com.esatic.assignmentapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimiterTest {
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        LocalRateLimiter limiter = limiter(3, 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("ip:1", RateLimitGroup.READS)).isZero();
+        }
+        long wait = limiter.tryAcquire("ip:1", RateLimitGroup.READS);
+
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void rejectedRequestDoesNotConsumeQuota() {
+        LocalRateLimiter limiter = limiter(1, 1);
+
+        assertThat(limiter.tryAcquire("ip:1", RateLimitGroup.READS)).isZero();
+        long first = limiter.tryAcquire("ip:1", RateLimitGroup.READS);
+        long second = limiter.tryAcquire("ip:1", RateLimitGroup.READS);
+
+        assertThat(second).isPositive().isLessThanOrEqualTo(first);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() throws InterruptedException {
+        LocalRateLimiter limiter = limiter(1, 10);
+
+        assertThat(limiter.tryAcquire("ip:1", RateLimitGroup.READS)).isZero();
+        assertThat(limiter.tryAcquire("ip:1", RateLimitGroup.READS)).isPositive();
+        Thread.sleep(150);
+
+        assertThat(limiter.tryAcquire("ip:1", RateLimitGroup.READS)).isZero();
+    }
+
+    @Test
+    void clientsAndGroupsHaveSeparateBuckets() {
+        LocalRateLimiter limiter = limiter(1, 1);
+
+        assertThat(limiter.tryAcquire("ip:1", RateLimitGroup.READS)).isZero();
+        assertThat(limiter.tryAcquire("ip:1", RateLimitGroup.READS)).isPositive();
+
+        assertThat(limiter.tryAcquire("ip:2", RateLimitGroup.READS)).isZero();
+        assertThat(limiter.tryAcquire("ip:1", RateLimitGroup.WRITES)).isZero();
+    }
+
+    private static LocalRateLimiter limiter(long capacity, double perSecond) {
+        Map<RateLimitGroup, RateLimits.Limit> limits = new EnumMap<>(RateLimitGroup.class);
+        for (RateLimitGroup group : RateLimitGroup.values()) {
+            limits.put(group, new RateLimits.Limit(capacity, perSecond));
+        }
+        return new LocalRateLimiter(new RateLimits(limits));
+    }
+}
@@ -0,0 +1,45 @@
+package com.esatic.assignmentapp.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitGroupTest {
+
+    @Test
+    void authRoutesUseAuthGroup() {
+        assertThat(RateLimitGroup.of(request("POST", "/api/auth/login"))).isEqualTo(RateLimitGroup.AUTH);
+    }
+
+    @Test
+    void uploadWritesUseUploadGroup() {
+        assertThat(RateLimitGroup.of(request("POST", "/api/uploads"))).isEqualTo(RateLimitGroup.UPLOADS);
+        assertThat(RateLimitGroup.of(request("PUT", "/api/uploads/stream"))).isEqualTo(RateLimitGroup.UPLOADS);
+        assertThat(RateLimitGroup.of(request("PATCH", "/api/uploads/resumable/42"))).isEqualTo(RateLimitGroup.UPLOADS);
+    }
+
+    @Test
+    void uploadReadsUseReadGroup() {
+        assertThat(RateLimitGroup.of(request("GET", "/uploads/profiles/a.png"))).isEqualTo(RateLimitGroup.READS);
+        assertThat(RateLimitGroup.of(request("HEAD", "/api/uploads/resumable/42"))).isEqualTo(RateLimitGroup.READS);
+    }
+
+    @Test
+    void otherMethodsUseWriteGroup() {
+        assertThat(RateLimitGroup.of(request("DELETE", "/api/uploads"))).isEqualTo(RateLimitGroup.WRITES);
+        assertThat(RateLimitGroup.of(request("POST", "/api/assignments"))).isEqualTo(RateLimitGroup.WRITES);
+        assertThat(RateLimitGroup.of(request("GET", "/api/assignments"))).isEqualTo(RateLimitGroup.READS);
+    }
+
+    @Test
+    void unrelatedRoutesAreNotLimited() {
+        assertThat(RateLimitGroup.of(request("GET", "/actuator/health"))).isNull();
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api" + path);
+        request.setContextPath("/api");
+        return request;
+    }
+}
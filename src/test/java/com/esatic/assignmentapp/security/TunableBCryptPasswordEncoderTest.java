@@ -0,0 +1,41 @@
+package com.esatic.assignmentapp.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TunableBCryptPasswordEncoderTest {
+
+    @Test
+    void costIsReadFromHash() {
+        assertThat(TunableBCryptPasswordEncoder.costOf(new BCryptPasswordEncoder(5).encode("secret"))).isEqualTo(5);
+        assertThat(TunableBCryptPasswordEncoder.costOf("{noop}secret")).isEqualTo(-1);
+        assertThat(TunableBCryptPasswordEncoder.costOf(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void onlyWeakerHashesAreUpgraded() {
+        TunableBCryptPasswordEncoder encoder = new TunableBCryptPasswordEncoder(6);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding("not a hash")).isFalse();
+    }
+
+    @Test
+    void hashesOfAnyCostStillMatch() {
+        TunableBCryptPasswordEncoder encoder = new TunableBCryptPasswordEncoder(6);
+
+        assertThat(encoder.matches("secret", new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.matches("wrong", encoder.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        assertThat(TunableBCryptPasswordEncoder.calibrate(0, 4, 6)).isEqualTo(4);
+        assertThat(TunableBCryptPasswordEncoder.calibrate(Long.MAX_VALUE / 2_000_000, 4, 6)).isEqualTo(6);
+        assertThat(TunableBCryptPasswordEncoder.calibrate(250, 4, 31)).isBetween(4, 31);
+    }
+}
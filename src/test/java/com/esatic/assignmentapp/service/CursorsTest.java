@@ -0,0 +1,33 @@
+package com.esatic.assignmentapp.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorsTest {
+
+    @Test
+    void decodeReversesEncode() {
+        String id = "6543a1b2c3d4e5f601234567";
+
+        String cursor = Cursors.encode(id);
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(Cursors.decode(cursor)).isEqualTo(id);
+    }
+
+    @Test
+    void missingCursorMeansFirstPage() {
+        assertThat(Cursors.encode(null)).isNull();
+        assertThat(Cursors.decode(null)).isNull();
+        assertThat(Cursors.decode(" ")).isNull();
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        assertThatThrownBy(() -> Cursors.decode("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Curseur invalide");
+    }
+}
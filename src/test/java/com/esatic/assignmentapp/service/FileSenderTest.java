@@ -0,0 +1,99 @@
+package com.esatic.assignmentapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSenderTest {
+
+    private static final long LENGTH = 1000;
+    private static final ServedFile FILE = new ServedFile(
+            new StoredObject(null, "abcd", LENGTH, null), "file.pdf", "application/pdf", "\"abcd\"", true, LENGTH);
+
+    @Test
+    void noRangeHeaderServesWholeFile() {
+        assertThat(FileSender.requestedRanges(new MockHttpServletRequest(), FILE, LENGTH)).isEmpty();
+    }
+
+    @Test
+    void singleRangeIsParsed() {
+        List<HttpRange> ranges = FileSender.requestedRanges(withRange("bytes=100-199"), FILE, LENGTH);
+
+        assertThat(ranges).hasSize(1);
+        assertThat(ranges.get(0).getRangeStart(LENGTH)).isEqualTo(100);
+        assertThat(ranges.get(0).getRangeEnd(LENGTH)).isEqualTo(199);
+    }
+
+    @Test
+    void suffixAndOpenRangesAreClampedToLength() {
+        List<HttpRange> ranges = FileSender.requestedRanges(withRange("bytes=-100,900-"), FILE, LENGTH);
+
+        assertThat(ranges).hasSize(2);
+        assertThat(ranges.get(0).getRangeStart(LENGTH)).isEqualTo(900);
+        assertThat(ranges.get(1).getRangeEnd(LENGTH)).isEqualTo(LENGTH - 1);
+    }
+
+    @Test
+    void rangeBeyondLengthIsUnsatisfiable() {
+        assertThat(FileSender.requestedRanges(withRange("bytes=1000-1100"), FILE, LENGTH)).isNull();
+    }
+
+    @Test
+    void malformedRangeIsUnsatisfiable() {
+        assertThat(FileSender.requestedRanges(withRange("octets=0-1"), FILE, LENGTH)).isNull();
+    }
+
+    @Test
+    void overlappingRangesLargerThanFileServeWholeFile() {
+        assertThat(FileSender.requestedRanges(withRange("bytes=0-799,200-999"), FILE, LENGTH)).isEmpty();
+    }
+
+    @Test
+    void ifRangeWithOtherEtagServesWholeFile() {
+        MockHttpServletRequest request = withRange("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+
+        assertThat(FileSender.requestedRanges(request, FILE, LENGTH)).isEmpty();
+    }
+
+    @Test
+    void ifRangeWithSameEtagKeepsRange() {
+        MockHttpServletRequest request = withRange("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"abcd\"");
+
+        assertThat(FileSender.requestedRanges(request, FILE, LENGTH)).hasSize(1);
+    }
+
+    @Test
+    void ifRangeIsIgnoredForWeakEtag() {
+        ServedFile legacy = new ServedFile(FILE.object(), "old.pdf", "application/pdf", "W/\"1000-1\"", false, LENGTH);
+        MockHttpServletRequest request = withRange("bytes=0-9");
+        request.addHeader(HttpHeaders.IF_RANGE, "W/\"1000-1\"");
+
+        assertThat(FileSender.requestedRanges(request, legacy, LENGTH)).isEmpty();
+    }
+
+    @Test
+    void acceptsGzipUnlessExplicitlyRefused() {
+        assertThat(FileSender.acceptsGzip(null)).isFalse();
+        assertThat(FileSender.acceptsGzip("identity")).isFalse();
+        assertThat(FileSender.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(FileSender.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(FileSender.acceptsGzip("x-gzip")).isTrue();
+        assertThat(FileSender.acceptsGzip("*")).isTrue();
+        assertThat(FileSender.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(FileSender.acceptsGzip("gzip; q=0.000")).isFalse();
+        assertThat(FileSender.acceptsGzip("gzip;q=0.001")).isTrue();
+    }
+
+    private static MockHttpServletRequest withRange(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, range);
+        return request;
+    }
+}
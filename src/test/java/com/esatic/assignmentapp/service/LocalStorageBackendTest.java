@@ -0,0 +1,113 @@
+package com.esatic.assignmentapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalStorageBackendTest {
+
+    private static final String SHA = "abcdef0123456789abcdef0123456789abcdef0123456789abcdef0123456789";
+
+    @TempDir
+    Path root;
+
+    @Test
+    void hexKeysAreShardedByTheirFirstFourCharacters() throws IOException {
+        LocalStorageBackend storage = new LocalStorageBackend(root);
+
+        storage.write(SHA, content("blob"));
+
+        assertThat(storage.localFile(SHA)).contains(root.resolve("ab").resolve("cd").resolve(SHA));
+    }
+
+    @Test
+    void variantsShareTheDirectoryOfTheirContent() throws IOException {
+        LocalStorageBackend storage = new LocalStorageBackend(root);
+
+        storage.write(SHA + "-64.png", content("thumbnail"));
+
+        assertThat(storage.localFile(SHA + "-64.png")).contains(root.resolve("ab/cd/" + SHA + "-64.png"));
+    }
+
+    @Test
+    void otherKeysAreShardedByTheirHash() throws IOException {
+        LocalStorageBackend storage = new LocalStorageBackend(root);
+
+        storage.write("photo.png", content("photo"));
+
+        Path file = storage.localFile("photo.png").orElseThrow();
+        assertThat(root.relativize(file).getNameCount()).isEqualTo(3);
+        assertThat(file.getParent().getFileName().toString()).matches("[0-9a-f]{2}");
+        assertThat(file.getParent().getParent().getFileName().toString()).matches("[0-9a-f]{2}");
+    }
+
+    @Test
+    void flatFilesAreReadUntilMovedToTheirShard() throws IOException {
+        Files.writeString(root.resolve(SHA), "legacy");
+        LocalStorageBackend storage = new LocalStorageBackend(root);
+
+        assertThat(storage.localFile(SHA)).contains(root.resolve(SHA));
+        assertThat(storage.shardFlatFiles(10)).isEqualTo(1);
+        assertThat(storage.localFile(SHA)).contains(root.resolve("ab/cd/" + SHA));
+        assertThat(read(storage, SHA)).isEqualTo("legacy");
+        assertThat(storage.shardFlatFiles(10)).isZero();
+    }
+
+    @Test
+    void missingKeyHasNoSizeNorFile() throws IOException {
+        LocalStorageBackend storage = new LocalStorageBackend(root);
+
+        assertThat(storage.size(SHA)).isEmpty();
+        assertThat(storage.localFile(SHA)).isEmpty();
+    }
+
+    @Test
+    void deleteRemovesBothLayouts() throws IOException {
+        Files.writeString(root.resolve(SHA), "legacy");
+        LocalStorageBackend storage = new LocalStorageBackend(root);
+        storage.write(SHA, content("blob"));
+
+        assertThat(storage.delete(SHA)).isTrue();
+        assertThat(storage.localFile(SHA)).isEmpty();
+    }
+
+    @Test
+    void deleteByPrefixRemovesVariantsOnly() throws IOException {
+        LocalStorageBackend storage = new LocalStorageBackend(root);
+        storage.write(SHA, content("blob"));
+        storage.write(SHA + "-64.png", content("small"));
+        storage.write(SHA + "-128.png", content("large"));
+
+        storage.deleteByPrefix(SHA + "-");
+
+        assertThat(storage.keys()).containsExactly(SHA);
+    }
+
+    @Test
+    void keysOutsideTheRootAreRejected() {
+        LocalStorageBackend storage = new LocalStorageBackend(root);
+
+        assertThatThrownBy(() -> storage.write("../escape", content("x"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> storage.size("ab/cd")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> storage.size("")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static InputStream content(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(LocalStorageBackend storage, String key) throws IOException {
+        try (InputStream in = storage.read(key)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}